@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.devskills.book.role.Role;
 import com.devskills.book.role.RoleRepository;
@@ -13,6 +14,7 @@ import com.devskills.book.role.RoleRepository;
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditorAware")
 @EnableAsync
+@EnableScheduling
 public class BookNetworkApiApplication {
 
 	public static void main(String[] args) {
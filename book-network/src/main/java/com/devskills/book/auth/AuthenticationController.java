@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.mail.MessagingException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -34,9 +35,10 @@ public class AuthenticationController {
 	
 	@PostMapping("/authenticate")
 	public ResponseEntity<AuthenticationResponse> authenticate(
-			@RequestBody @Valid AuthenticationRequest request
+			@RequestBody @Valid AuthenticationRequest request,
+			HttpServletRequest httpRequest
 	) {
-		return ResponseEntity.ok(service.authenticate(request));
+		return ResponseEntity.ok(service.authenticate(request, httpRequest.getRemoteAddr()));
 	}
 	
 	@GetMapping("/activate-account")
@@ -7,7 +7,9 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -15,6 +17,8 @@ import com.devskills.book.email.EmailService;
 import com.devskills.book.email.EmailTemplateName;
 import com.devskills.book.role.RoleRepository;
 import com.devskills.book.security.JwtService;
+import com.devskills.book.security.LoginThrottle;
+import com.devskills.book.security.UserStatusCache;
 import com.devskills.book.user.Token;
 import com.devskills.book.user.TokenRepository;
 import com.devskills.book.user.User;
@@ -35,6 +39,8 @@ public class AuthenticationService {
 	private final EmailService emailService;
 	private final AuthenticationManager authenticationManager;
 	private final JwtService jwtService;
+	private final UserStatusCache userStatusCache;
+	private final LoginThrottle loginThrottle;
 	
 	@Value("${application.mailing.frontend.activation-url}")
 	private String activationUrl;
@@ -53,6 +59,7 @@ public class AuthenticationService {
 				.roles(List.of(userRole))
 				.build();
 		userRepository.save(user);
+		userStatusCache.invalidate(user.getEmail());
 		sendValidationEmail(user);
 	}
 
@@ -95,15 +102,28 @@ public class AuthenticationService {
 		return codeBuilder.toString();
 	}
 
-	public AuthenticationResponse authenticate(@Valid AuthenticationRequest request) {
-		var auth = authenticationManager.authenticate(
-				new UsernamePasswordAuthenticationToken(
-						request.getEmail(),
-						request.getPassword()
-				)
-		);
+	public AuthenticationResponse authenticate(@Valid AuthenticationRequest request, String clientAddress) {
+		loginThrottle.reserve(request.getEmail(), clientAddress);
+		Authentication auth;
+		try {
+			auth = authenticationManager.authenticate(
+					new UsernamePasswordAuthenticationToken(
+							request.getEmail(),
+							request.getPassword()
+					)
+			);
+		} catch (RuntimeException e) {
+			if (!(e instanceof BadCredentialsException)) {
+				loginThrottle.release(request.getEmail(), clientAddress);
+			}
+			throw e;
+		}
+		loginThrottle.recordSuccess(request.getEmail(), clientAddress);
 		var claims = new HashMap<String, Object>();
 		var user = (User) auth.getPrincipal();
+		claims.put("id", user.getId());
+		claims.put("firstname", user.getFirstname());
+		claims.put("lastname", user.getLastname());
 		claims.put("fullName", user.fullName());
 		var jwtToken = jwtService.generateToken(claims, user);
 		return AuthenticationResponse.builder()
@@ -124,6 +144,7 @@ public class AuthenticationService {
 				.orElseThrow(() -> new UsernameNotFoundException("User not found"));
 		user.setEnabled(true);
 		userRepository.save(user);
+		userStatusCache.invalidate(user.getEmail());
 		savedToken.setValidatedAt(LocalDateTime.now());
 		tokenRepository.save(savedToken);
 		
@@ -0,0 +1,38 @@
+package com.devskills.book.auth;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.devskills.book.security.TokenRevocationService;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("sessions")
+@RequiredArgsConstructor
+@Tag(name = "Sessions")
+public class SessionController {
+	
+	private final TokenRevocationService service;
+	
+	@PostMapping("/logout")
+	public ResponseEntity<Void> logout(
+			Authentication connectedUser
+	) {
+		service.revoke(connectedUser);
+		return ResponseEntity.noContent().build();
+	}
+	
+	@PostMapping("/revoke-all")
+	public ResponseEntity<Void> revokeAll(
+			Authentication connectedUser
+	) {
+		service.revokeAll(connectedUser);
+		return ResponseEntity.noContent().build();
+	}
+
+}
@@ -2,16 +2,22 @@ package com.devskills.book.book;
 
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import com.devskills.book.common.BaseEntity;
 import com.devskills.book.feedback.Feedback;
 import com.devskills.book.history.BookTransactionHistory;
 import com.devskills.book.user.User;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
-import jakarta.persistence.Transient;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -24,6 +30,19 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
+@Table(indexes = {
+		@Index(columnList = "created_date, id"),
+		@Index(columnList = "owner_id, created_date, id"),
+		@Index(columnList = "title, id"),
+		@Index(columnList = "rate, id"),
+		@Index(columnList = "isbn"),
+		@Index(columnList = "author_name, created_date, id"),
+		@Index(columnList = "author_name, title, id"),
+		@Index(columnList = "author_name, rate, id"),
+		@Index(columnList = "last_modified_date")
+})
 public class Book extends BaseEntity {
 	
 	private String title;
@@ -34,6 +53,15 @@ public class Book extends BaseEntity {
 	private boolean archived;
 	private boolean shareable;
 	
+	@ColumnDefault("0")
+	private double rateSum;
+	
+	@ColumnDefault("0")
+	private long rateCount;
+	
+	@ColumnDefault("0")
+	private double rate;
+	
 	@ManyToOne
 	@JoinColumn(name = "owner_id")
 	private User owner;
@@ -44,18 +72,10 @@ public class Book extends BaseEntity {
 	@OneToMany(mappedBy = "book")
 	private List<BookTransactionHistory> histories;
 	
-	@Transient
-	public double getrate() {
-		if (feedbacks == null || feedbacks.isEmpty()) {
-			return 0.0;
-		}
-		var rate = this.feedbacks.stream()
-				.mapToDouble(Feedback::getNote)
-				.average()
-				.orElse(0.0);
-		double roundedRate = Math.round(rate * 10.0) / 10.0;
-		
-		return roundedRate;
+	public void addRate(double note) {
+		rateSum += note;
+		rateCount++;
+		rate = Math.round(rateSum / rateCount * 10) / 10.0;
 	}
 
 }
@@ -0,0 +1,9 @@
+package com.devskills.book.book;
+
+import java.time.LocalDateTime;
+
+public record BookCatalogChange(
+		Integer id,
+		LocalDateTime modifiedAt
+) {
+}
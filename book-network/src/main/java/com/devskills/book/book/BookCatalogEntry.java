@@ -0,0 +1,22 @@
+package com.devskills.book.book;
+
+import java.time.LocalDateTime;
+
+public record BookCatalogEntry(
+		Integer id,
+		String title,
+		String authorName,
+		String isbn,
+		String synopsis,
+		String owner,
+		double rate,
+		String bookCover,
+		LocalDateTime createdDate,
+		Integer ownerId
+) {
+	
+	public BookSummary toSummary() {
+		return new BookSummary(id, title, authorName, isbn, synopsis, owner, rate, false, true, bookCover, createdDate);
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.devskills.book.book;
+
+public record BookCatalogFilter(
+		String authorName,
+		String isbn,
+		Double minRate,
+		Boolean available
+) {
+	
+	public boolean isEmpty() {
+		return (authorName == null || authorName.isBlank())
+				&& (isbn == null || isbn.isBlank())
+				&& minRate == null
+				&& available == null;
+	}
+
+}
@@ -0,0 +1,333 @@
+package com.devskills.book.book;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookCatalogSnapshot {
+
+	private static final Comparator<BookCatalogEntry> NEWEST_FIRST = Comparator
+			.comparing(BookCatalogEntry::createdDate, Comparator.nullsLast(Comparator.reverseOrder()))
+			.thenComparing(BookCatalogEntry::id, Comparator.reverseOrder());
+	private static final int MAX_PENDING_CHANGES = 256;
+
+	private final BookRepository bookRepository;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final AtomicInteger invalidations = new AtomicInteger();
+	private final Map<Integer, LocalDateTime> localWrites = new HashMap<>();
+	private Snapshot snapshot;
+	private List<Consumer<Snapshot>> pendingPatches;
+	private volatile LocalDateTime watermark;
+	private volatile boolean stale = true;
+
+	@Value("${application.book.catalog-snapshot.enabled}")
+	private boolean enabled;
+
+	@Transactional(readOnly = true)
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		if (enabled) {
+			rebuild();
+		}
+	}
+
+	@Transactional(readOnly = true)
+	@Scheduled(fixedDelayString = "${application.book.catalog-snapshot.refresh-interval}")
+	public void refreshIfStale() {
+		if (!enabled) {
+			return;
+		}
+		if (stale || watermark == null) {
+			if (stale || bookRepository.findCatalogWatermark() != null) {
+				rebuild();
+			}
+			return;
+		}
+		List<BookCatalogChange> changes = bookRepository.findCatalogChangesAfter(watermark, Limit.of(MAX_PENDING_CHANGES));
+		if (changes.isEmpty()) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if (changes.size() < MAX_PENDING_CHANGES && changes.stream().allMatch(this::appliedLocally)) {
+				LocalDateTime advanced = changes.stream()
+						.map(BookCatalogChange::modifiedAt)
+						.max(Comparator.naturalOrder())
+						.orElseThrow();
+				watermark = advanced;
+				localWrites.values().removeIf(applied -> !applied.isAfter(advanced));
+				return;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		rebuild();
+	}
+
+	public void invalidate() {
+		invalidations.incrementAndGet();
+		stale = true;
+	}
+
+	public void index(Book book) {
+		BookCatalogEntry entry = book.isArchived() || !book.isShareable() || book.getOwner() == null
+				? null
+				: new BookCatalogEntry(
+						book.getId(),
+						book.getTitle(),
+						book.getAuthorName(),
+						book.getIsbn(),
+						book.getSynopsis(),
+						book.getOwner().fullName(),
+						book.getRate(),
+						book.getBookCover(),
+						book.getCreatedDate(),
+						book.getOwner().getId()
+				);
+		patch(book.getId(), snapshot -> snapshot.put(book.getId(), entry));
+	}
+
+	public void updateRate(Integer bookId, double rate) {
+		patch(bookId, snapshot -> snapshot.find(bookId).ifPresent(entry -> snapshot.put(bookId, new BookCatalogEntry(
+					entry.id(),
+					entry.title(),
+					entry.authorName(),
+					entry.isbn(),
+					entry.synopsis(),
+					entry.owner(),
+					rate,
+					entry.bookCover(),
+					entry.createdDate(),
+					entry.ownerId()
+		))));
+	}
+
+	public Optional<Page<BookSummary>> findPage(Integer userId, int page, int size) {
+		if (!enabled || stale) {
+			return Optional.empty();
+		}
+		lock.readLock().lock();
+		try {
+			return snapshot == null ? Optional.empty() : Optional.of(snapshot.page(userId, page, size));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void patch(Integer bookId, Consumer<Snapshot> patch) {
+		lock.writeLock().lock();
+		try {
+			boolean applied = snapshot != null && !stale;
+			if (applied) {
+				patch.accept(snapshot);
+			}
+			if (pendingPatches != null) {
+				pendingPatches.add(patch);
+			}
+			if (applied || pendingPatches != null) {
+				localWrites.put(bookId, LocalDateTime.now());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private boolean appliedLocally(BookCatalogChange change) {
+		LocalDateTime applied = localWrites.get(change.id());
+		return applied != null && change.modifiedAt() != null && !change.modifiedAt().isAfter(applied);
+	}
+
+	private synchronized void rebuild() {
+		long start = System.nanoTime();
+		int seenInvalidations = invalidations.get();
+		lock.writeLock().lock();
+		try {
+			pendingPatches = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		LocalDateTime rebuiltWatermark;
+		List<BookCatalogEntry> entries;
+		try {
+			rebuiltWatermark = bookRepository.findCatalogWatermark();
+			try (Stream<BookCatalogEntry> catalogEntries = bookRepository.streamCatalogEntries()) {
+				entries = catalogEntries.toList();
+			}
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			try {
+				pendingPatches = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			throw e;
+		}
+		Snapshot rebuilt = new Snapshot(entries);
+		lock.writeLock().lock();
+		try {
+			pendingPatches.forEach(patch -> patch.accept(rebuilt));
+			pendingPatches = null;
+			snapshot = rebuilt;
+			watermark = rebuiltWatermark;
+			if (rebuiltWatermark != null) {
+				localWrites.values().removeIf(applied -> !applied.isAfter(rebuiltWatermark));
+			}
+			stale = invalidations.get() != seenInvalidations;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info("Catalog snapshot built with {} books in {} ms", entries.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	private static final class Snapshot {
+
+		private BookCatalogEntry[] entries;
+		private final Map<Integer, Integer> positions = new HashMap<>();
+		private final List<BookCatalogEntry> inserted = new ArrayList<>();
+		private final Map<Integer, Integer> booksPerOwner = new HashMap<>();
+		private int bookCount;
+		private int removed;
+
+		private Snapshot(List<BookCatalogEntry> entries) {
+			this.entries = entries.toArray(BookCatalogEntry[]::new);
+			for (int i = 0; i < this.entries.length; i++) {
+				positions.put(this.entries[i].id(), i);
+				count(this.entries[i], 1);
+			}
+		}
+
+		private Optional<BookCatalogEntry> find(Integer bookId) {
+			Integer position = positions.get(bookId);
+			if (position != null) {
+				return Optional.of(entries[position]);
+			}
+			return inserted.stream()
+					.filter(entry -> Objects.equals(entry.id(), bookId))
+					.findFirst();
+		}
+
+		private void put(Integer bookId, BookCatalogEntry replacement) {
+			Integer position = positions.get(bookId);
+			if (position != null) {
+				BookCatalogEntry current = entries[position];
+				count(current, -1);
+				if (replacement != null && NEWEST_FIRST.compare(current, replacement) == 0) {
+					entries[position] = replacement;
+					count(replacement, 1);
+					return;
+				}
+				entries[position] = null;
+				positions.remove(bookId);
+				removed++;
+			} else {
+				inserted.removeIf(entry -> {
+					if (Objects.equals(entry.id(), bookId)) {
+						count(entry, -1);
+						return true;
+					}
+					return false;
+				});
+			}
+			if (replacement != null) {
+				int index = Collections.binarySearch(inserted, replacement, NEWEST_FIRST);
+				inserted.add(index < 0 ? -index - 1 : index, replacement);
+				count(replacement, 1);
+			}
+			if (inserted.size() + removed > MAX_PENDING_CHANGES) {
+				compact();
+			}
+		}
+
+		private void compact() {
+			BookCatalogEntry[] compacted = new BookCatalogEntry[bookCount];
+			positions.clear();
+			int next = 0;
+			int insertedIndex = 0;
+			for (BookCatalogEntry entry : entries) {
+				if (entry == null) {
+					continue;
+				}
+				while (insertedIndex < inserted.size() && NEWEST_FIRST.compare(inserted.get(insertedIndex), entry) < 0) {
+					compacted[next++] = inserted.get(insertedIndex++);
+				}
+				compacted[next++] = entry;
+			}
+			while (insertedIndex < inserted.size()) {
+				compacted[next++] = inserted.get(insertedIndex++);
+			}
+			for (int i = 0; i < compacted.length; i++) {
+				positions.put(compacted[i].id(), i);
+			}
+			entries = compacted;
+			inserted.clear();
+			removed = 0;
+		}
+
+		private void count(BookCatalogEntry entry, int delta) {
+			bookCount += delta;
+			booksPerOwner.merge(entry.ownerId(), delta, (count, change) -> count + change == 0 ? null : count + change);
+		}
+
+		private Page<BookSummary> page(Integer userId, int page, int size) {
+			int owned = userId == null ? 0 : booksPerOwner.getOrDefault(userId, 0);
+			int visible = bookCount - owned;
+			long offset = (long) page * size;
+			List<BookSummary> content = new ArrayList<>(size);
+			long skipped = 0;
+			int entryIndex = 0;
+			int insertedIndex = 0;
+			while (content.size() < size) {
+				while (entryIndex < entries.length && entries[entryIndex] == null) {
+					entryIndex++;
+				}
+				BookCatalogEntry entry;
+				if (insertedIndex < inserted.size()
+						&& (entryIndex == entries.length || NEWEST_FIRST.compare(inserted.get(insertedIndex), entries[entryIndex]) < 0)) {
+					entry = inserted.get(insertedIndex++);
+				} else if (entryIndex < entries.length) {
+					entry = entries[entryIndex++];
+				} else {
+					break;
+				}
+				if (userId != null && Objects.equals(entry.ownerId(), userId)) {
+					continue;
+				}
+				if (skipped < offset) {
+					skipped++;
+					continue;
+				}
+				content.add(entry.toSummary());
+			}
+			return new PageImpl<>(content, PageRequest.of(page, size, BookSort.RECENT.toSort()), visible);
+		}
+	}
+
+}
@@ -1,5 +1,14 @@
 package com.devskills.book.book;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,8 +21,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.devskills.book.common.CountMode;
+import com.devskills.book.common.CursorPageResponse;
 import com.devskills.book.common.PageResponse;
+import com.devskills.book.common.SliceResponse;
+import com.devskills.book.cover.CoverJobResponse;
+import com.devskills.book.file.CoverSize;
+import com.devskills.book.file.FileStorageService;
 
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,6 +43,9 @@ import lombok.RequiredArgsConstructor;
 public class BookController {
 	
 	private final BookService service;
+	private final BookImportService importService;
+	private final BookExportService exportService;
+	private final FileStorageService fileStorageService;
 	
 	@PostMapping
 	public ResponseEntity<Integer> saveBook(
@@ -36,6 +55,38 @@ public class BookController {
 		return ResponseEntity.ok(service.save(request, connectedUser));
 	}
 	
+	@PostMapping(value = "/import", consumes = "application/x-ndjson")
+	public ResponseEntity<BookImportResponse> importBooksFromNdjson(
+			InputStream content,
+			Authentication connectedUser
+	) throws IOException {
+		return ResponseEntity.ok(importService.importBooks(content, BookDataFormat.NDJSON, connectedUser));
+	}
+	
+	@PostMapping(value = "/import", consumes = "text/csv")
+	public ResponseEntity<BookImportResponse> importBooksFromCsv(
+			InputStream content,
+			Authentication connectedUser
+	) throws IOException {
+		return ResponseEntity.ok(importService.importBooks(content, BookDataFormat.CSV, connectedUser));
+	}
+	
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportBooks(
+			@RequestParam(name = "format", defaultValue = "NDJSON", required = false) BookDataFormat format,
+			Authentication connectedUser
+	) {
+		return toExport(exportService.exportBooks(format, connectedUser), format, "books");
+	}
+	
+	@GetMapping("/history/export")
+	public ResponseEntity<StreamingResponseBody> exportHistory(
+			@RequestParam(name = "format", defaultValue = "NDJSON", required = false) BookDataFormat format,
+			Authentication connectedUser
+	) {
+		return toExport(exportService.exportHistory(format, connectedUser), format, "history");
+	}
+	
 	@GetMapping("/{book-id}")
 	public ResponseEntity<BookResponse> findBookById(
 			@PathVariable("book-id") Integer bookId
@@ -43,22 +94,136 @@ public class BookController {
 		return ResponseEntity.ok(service.findById(bookId));
 	}
 	
+	@GetMapping("/{book-id}/cover")
+	public ResponseEntity<Resource> findBookCover(
+			@PathVariable("book-id") Integer bookId,
+			@RequestParam(name = "size", defaultValue = "ORIGINAL", required = false) CoverSize coverSize
+	) throws IOException {
+		Resource cover = service.findBookCover(bookId, coverSize);
+		long lastModified = cover.lastModified();
+		String eTag = Long.toHexString(lastModified) + "-" + Long.toHexString(cover.contentLength());
+		return ResponseEntity.ok()
+				.contentType(fileStorageService.getContentType(cover))
+				.cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate())
+				.eTag(eTag)
+				.lastModified(lastModified)
+				.body(cover);
+	}
+	
 	@GetMapping
 	public ResponseEntity<PageResponse<BookResponse>> findAllBooks(
 			@RequestParam(name = "page", defaultValue = "0", required = false) int page,
 			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "authorName", required = false) String authorName,
+			@RequestParam(name = "isbn", required = false) String isbn,
+			@RequestParam(name = "minRate", required = false) Double minRate,
+			@RequestParam(name = "available", required = false) Boolean available,
+			@RequestParam(name = "sort", defaultValue = "RECENT", required = false) BookSort sort,
+			@RequestParam(name = "coverMode", defaultValue = "EMBEDDED", required = false) CoverMode coverMode,
+			@RequestParam(name = "coverSize", defaultValue = "ORIGINAL", required = false) CoverSize coverSize,
 			Authentication connectedUser
 	) {
-		return ResponseEntity.ok(service.findAllBooks(page, size, connectedUser));
+		return ResponseEntity.ok(service.findAllBooks(page, size, new BookCatalogFilter(authorName, isbn, minRate, available), sort, coverMode, coverSize, connectedUser));
+	}
+	
+	@GetMapping(params = {"count", "!cursor"})
+	public ResponseEntity<SliceResponse<BookResponse>> findAllBooksWithoutCount(
+			@RequestParam(name = "page", defaultValue = "0", required = false) int page,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "count") CountMode countMode,
+			@RequestParam(name = "authorName", required = false) String authorName,
+			@RequestParam(name = "isbn", required = false) String isbn,
+			@RequestParam(name = "minRate", required = false) Double minRate,
+			@RequestParam(name = "available", required = false) Boolean available,
+			@RequestParam(name = "sort", defaultValue = "RECENT", required = false) BookSort sort,
+			@RequestParam(name = "coverMode", defaultValue = "EMBEDDED", required = false) CoverMode coverMode,
+			@RequestParam(name = "coverSize", defaultValue = "ORIGINAL", required = false) CoverSize coverSize,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllBooks(page, size, countMode, new BookCatalogFilter(authorName, isbn, minRate, available), sort, coverMode, coverSize, connectedUser));
+	}
+	
+	@GetMapping(params = "cursor")
+	public ResponseEntity<CursorPageResponse<BookResponse>> findAllBooksByCursor(
+			@RequestParam(name = "cursor") String cursor,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "authorName", required = false) String authorName,
+			@RequestParam(name = "isbn", required = false) String isbn,
+			@RequestParam(name = "minRate", required = false) Double minRate,
+			@RequestParam(name = "available", required = false) Boolean available,
+			@RequestParam(name = "sort", defaultValue = "RECENT", required = false) BookSort sort,
+			@RequestParam(name = "coverMode", defaultValue = "EMBEDDED", required = false) CoverMode coverMode,
+			@RequestParam(name = "coverSize", defaultValue = "ORIGINAL", required = false) CoverSize coverSize,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllBooks(cursor, size, new BookCatalogFilter(authorName, isbn, minRate, available), sort, coverMode, coverSize, connectedUser));
+	}
+	
+	@GetMapping("/search")
+	public ResponseEntity<CursorPageResponse<BookResponse>> searchBooks(
+			@RequestParam(name = "q") String searchQuery,
+			@RequestParam(name = "ownedOnly", defaultValue = "false", required = false) boolean ownedOnly,
+			@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "coverMode", defaultValue = "EMBEDDED", required = false) CoverMode coverMode,
+			@RequestParam(name = "coverSize", defaultValue = "ORIGINAL", required = false) CoverSize coverSize,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.searchBooks(searchQuery, ownedOnly, cursor, size, coverMode, coverSize, connectedUser));
+	}
+	
+	@GetMapping("/facets")
+	public ResponseEntity<BookFacetsResponse> findBookFacets(
+			@RequestParam(name = "authorName", required = false) String authorName,
+			@RequestParam(name = "isbn", required = false) String isbn,
+			@RequestParam(name = "minRate", required = false) Double minRate,
+			@RequestParam(name = "available", required = false) Boolean available,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findBookFacets(new BookCatalogFilter(authorName, isbn, minRate, available), connectedUser));
+	}
+	
+	@GetMapping("/suggest")
+	public ResponseEntity<List<BookSuggestion>> suggestBooks(
+			@RequestParam(name = "prefix") String prefix,
+			@RequestParam(name = "limit", defaultValue = "10", required = false) int limit,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.suggestBooks(prefix, limit, connectedUser));
 	}
 	
 	@GetMapping("/owner")
 	public ResponseEntity<PageResponse<BookResponse>> findAllBooksByOwner(
 			@RequestParam(name = "page", defaultValue = "0", required = false) int page,
 			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "coverMode", defaultValue = "EMBEDDED", required = false) CoverMode coverMode,
+			@RequestParam(name = "coverSize", defaultValue = "ORIGINAL", required = false) CoverSize coverSize,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllBooksByOwner(page, size, coverMode, coverSize, connectedUser));
+	}
+	
+	@GetMapping(value = "/owner", params = {"count", "!cursor"})
+	public ResponseEntity<SliceResponse<BookResponse>> findAllBooksByOwnerWithoutCount(
+			@RequestParam(name = "page", defaultValue = "0", required = false) int page,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "count") CountMode countMode,
+			@RequestParam(name = "coverMode", defaultValue = "EMBEDDED", required = false) CoverMode coverMode,
+			@RequestParam(name = "coverSize", defaultValue = "ORIGINAL", required = false) CoverSize coverSize,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllBooksByOwner(page, size, countMode, coverMode, coverSize, connectedUser));
+	}
+	
+	@GetMapping(value = "/owner", params = "cursor")
+	public ResponseEntity<CursorPageResponse<BookResponse>> findAllBooksByOwnerByCursor(
+			@RequestParam(name = "cursor") String cursor,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "coverMode", defaultValue = "EMBEDDED", required = false) CoverMode coverMode,
+			@RequestParam(name = "coverSize", defaultValue = "ORIGINAL", required = false) CoverSize coverSize,
 			Authentication connectedUser
 	) {
-		return ResponseEntity.ok(service.findAllBooksByOwner(page, size, connectedUser));
+		return ResponseEntity.ok(service.findAllBooksByOwner(cursor, size, coverMode, coverSize, connectedUser));
 	}
 	
 	@GetMapping("/borrowed")
@@ -70,6 +235,25 @@ public class BookController {
 		return ResponseEntity.ok(service.findAllBorrowedBooks(page, size, connectedUser));
 	}
 	
+	@GetMapping(value = "/borrowed", params = {"count", "!cursor"})
+	public ResponseEntity<SliceResponse<BorrowedBookResponse>> findAllBorrowedBooksWithoutCount(
+			@RequestParam(name = "page", defaultValue = "0", required = false) int page,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "count") CountMode countMode,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllBorrowedBooks(page, size, countMode, connectedUser));
+	}
+	
+	@GetMapping(value = "/borrowed", params = "cursor")
+	public ResponseEntity<CursorPageResponse<BorrowedBookResponse>> findAllBorrowedBooksByCursor(
+			@RequestParam(name = "cursor") String cursor,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllBorrowedBooks(cursor, size, connectedUser));
+	}
+	
 	@GetMapping("/returned")
 	public ResponseEntity<PageResponse<BorrowedBookResponse>> findAllReturnedBooks(
 			@RequestParam(name = "page", defaultValue = "0", required = false) int page,
@@ -79,6 +263,25 @@ public class BookController {
 		return ResponseEntity.ok(service.findAllReturnedBooks(page, size, connectedUser));
 	}
 	
+	@GetMapping(value = "/returned", params = {"count", "!cursor"})
+	public ResponseEntity<SliceResponse<BorrowedBookResponse>> findAllReturnedBooksWithoutCount(
+			@RequestParam(name = "page", defaultValue = "0", required = false) int page,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "count") CountMode countMode,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllReturnedBooks(page, size, countMode, connectedUser));
+	}
+	
+	@GetMapping(value = "/returned", params = "cursor")
+	public ResponseEntity<CursorPageResponse<BorrowedBookResponse>> findAllReturnedBooksByCursor(
+			@RequestParam(name = "cursor") String cursor,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllReturnedBooks(cursor, size, connectedUser));
+	}
+	
 	@PatchMapping("/shareable/{book-id}")
 	public ResponseEntity<Integer> updateShareableStatus(
 			@PathVariable("book-id") Integer bookId,
@@ -120,14 +323,29 @@ public class BookController {
 	}
 	
 	@PostMapping(value = "/cover/{book-id}", consumes = "multipart/form-data")
-	public ResponseEntity<?> uploadBookCoverPicture(
+	public ResponseEntity<Integer> uploadBookCoverPicture(
 			@PathVariable("book-id") Integer bookId,
 			@Parameter()
 			@RequestPart("file") MultipartFile file,
 			Authentication connectedUser
 	) {
-		service.uploadBookCoverPicture(file, connectedUser, bookId);
-		return ResponseEntity.accepted().build();
+		return ResponseEntity.accepted().body(service.uploadBookCoverPicture(file, connectedUser, bookId));
+	}
+	
+	@GetMapping("/cover-jobs/{job-id}")
+	public ResponseEntity<CoverJobResponse> findCoverJob(
+			@PathVariable("job-id") Integer jobId,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findCoverJob(jobId, connectedUser));
+	}
+	
+	private ResponseEntity<StreamingResponseBody> toExport(StreamingResponseBody body, BookDataFormat format, String name) {
+		boolean csv = format == BookDataFormat.CSV;
+		return ResponseEntity.ok()
+				.contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"")
+				.body(body);
 	}
 
 }
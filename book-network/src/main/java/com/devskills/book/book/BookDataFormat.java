@@ -0,0 +1,6 @@
+package com.devskills.book.book;
+
+public enum BookDataFormat {
+	NDJSON,
+	CSV
+}
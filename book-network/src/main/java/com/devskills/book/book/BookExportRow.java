@@ -0,0 +1,16 @@
+package com.devskills.book.book;
+
+import java.time.LocalDateTime;
+
+public record BookExportRow(
+		Integer id,
+		String title,
+		String authorName,
+		String isbn,
+		String synopsis,
+		double rate,
+		boolean archived,
+		boolean shareable,
+		LocalDateTime createdDate
+) {
+}
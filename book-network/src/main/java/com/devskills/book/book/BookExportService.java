@@ -0,0 +1,111 @@
+package com.devskills.book.book;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.devskills.book.history.BookHistoryExportRow;
+import com.devskills.book.history.BookTransactionHistoryRepository;
+import com.devskills.book.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Service
+public class BookExportService {
+	
+	private final BookRepository bookRepository;
+	private final BookTransactionHistoryRepository transactionHistoryRepository;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate readOnlyTransaction;
+	
+	public BookExportService(
+			BookRepository bookRepository,
+			BookTransactionHistoryRepository transactionHistoryRepository,
+			ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager
+	) {
+		this.bookRepository = bookRepository;
+		this.transactionHistoryRepository = transactionHistoryRepository;
+		this.objectMapper = objectMapper;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+	}
+	
+	public StreamingResponseBody exportBooks(BookDataFormat format, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Integer userId = user.getId();
+		return out -> write(out, format, BookExportRow.class, () -> bookRepository.streamExportRowsByOwner(userId));
+	}
+	
+	public StreamingResponseBody exportHistory(BookDataFormat format, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Integer userId = user.getId();
+		return out -> write(out, format, BookHistoryExportRow.class, () -> transactionHistoryRepository.streamExportRowsByUser(userId));
+	}
+	
+	private <T extends Record> void write(OutputStream out, BookDataFormat format, Class<T> rowType, Supplier<Stream<T>> rows) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		RecordComponent[] components = rowType.getRecordComponents();
+		if (format == BookDataFormat.CSV) {
+			writer.write(Arrays.stream(components).map(RecordComponent::getName).collect(Collectors.joining(",")));
+			writer.write('\n');
+		}
+		try {
+			readOnlyTransaction.executeWithoutResult(status -> {
+				try (Stream<T> stream = rows.get()) {
+					stream.forEach(row -> writeRow(writer, format, components, row));
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.flush();
+	}
+	
+	private void writeRow(Writer writer, BookDataFormat format, RecordComponent[] components, Record row) {
+		try {
+			if (format == BookDataFormat.CSV) {
+				writer.write(Arrays.stream(components)
+						.map(component -> toCsvValue(component, row))
+						.collect(Collectors.joining(",")));
+			} else {
+				writer.write(objectMapper.writeValueAsString(row));
+			}
+			writer.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private String toCsvValue(RecordComponent component, Record row) {
+		Object value;
+		try {
+			value = component.getAccessor().invoke(row);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("The export column " + component.getName() + " could not be read", e);
+		}
+		if (value == null) {
+			return "";
+		}
+		String text = value.toString();
+		if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+			return '"' + text.replace("\"", "\"\"") + '"';
+		}
+		return text;
+	}
+
+}
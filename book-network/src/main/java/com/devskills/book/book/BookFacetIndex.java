@@ -0,0 +1,296 @@
+package com.devskills.book.book;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devskills.book.history.BookOpenBorrow;
+import com.devskills.book.history.BookTransactionHistoryRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookFacetIndex {
+
+	private static final int RATE_BUCKETS = 51;
+	private static final Comparator<Map.Entry<String, Long>> AUTHOR_RANKING = Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+			.thenComparing(Map.Entry.comparingByKey());
+
+	private final BookRepository bookRepository;
+	private final BookTransactionHistoryRepository transactionHistoryRepository;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Facets facets = new Facets();
+	private List<Consumer<Facets>> pendingUpdates;
+
+	@Value("${application.book.facets.max-authors}")
+	private int maxAuthors;
+
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	@Transactional(readOnly = true)
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(cron = "${application.book.facets.rebuild-cron}")
+	public synchronized void build() {
+		long start = System.nanoTime();
+		lock.writeLock().lock();
+		try {
+			pendingUpdates = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		Facets rebuilt = new Facets();
+		try {
+			try (Stream<BookFacetSource> sources = bookRepository.streamFacetSources()) {
+				sources.forEach(rebuilt::insert);
+			}
+			try (Stream<BookOpenBorrow> openBorrows = transactionHistoryRepository.streamOpenBorrows()) {
+				openBorrows.forEach(openBorrow -> rebuilt.borrow(openBorrow.bookId(), openBorrow.historyId()));
+			}
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			try {
+				pendingUpdates = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			throw e;
+		}
+		rebuilt.authors.values().forEach(RoaringBitmap::runOptimize);
+		rebuilt.owners.values().forEach(RoaringBitmap::runOptimize);
+		lock.writeLock().lock();
+		try {
+			pendingUpdates.forEach(update -> update.accept(rebuilt));
+			pendingUpdates = null;
+			facets = rebuilt;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info(
+				"Facet index built for {} books and {} authors in {} ms",
+				rebuilt.books.size(),
+				rebuilt.authors.size(),
+				(System.nanoTime() - start) / 1_000_000
+		);
+	}
+
+	public void index(Book book) {
+		BookFacetSource source = new BookFacetSource(
+				book.getId(),
+				book.getAuthorName(),
+				book.getIsbn(),
+				book.getRate(),
+				book.getOwner() == null ? null : book.getOwner().getId(),
+				book.isArchived(),
+				book.isShareable()
+		);
+		update(facets -> {
+			facets.remove(source.id());
+			facets.insert(source);
+		});
+	}
+
+	public void updateRate(Integer bookId, double rate) {
+		update(facets -> {
+			BookFacetSource book = facets.books.get(bookId);
+			if (book == null) {
+				return;
+			}
+			facets.remove(bookId);
+			facets.insert(new BookFacetSource(book.id(), book.authorName(), book.isbn(), rate, book.ownerId(), book.archived(), book.shareable()));
+		});
+	}
+
+	public void borrowed(Integer bookId, Integer historyId) {
+		update(facets -> facets.borrow(bookId, historyId));
+	}
+
+	public void returnApproved(Integer bookId, Integer historyId) {
+		update(facets -> facets.giveBack(bookId, historyId));
+	}
+
+	public BookFacetsResponse facets(BookCatalogFilter filter, Integer userId) {
+		lock.readLock().lock();
+		try {
+			RoaringBitmap matches = facets.displayable.clone();
+			RoaringBitmap ownBooks = facets.owners.get(userId);
+			if (ownBooks != null) {
+				matches.andNot(ownBooks);
+			}
+			if (filter.authorName() != null && !filter.authorName().isBlank()) {
+				matches.and(facets.authors.getOrDefault(filter.authorName().strip(), new RoaringBitmap()));
+			}
+			if (filter.isbn() != null && !filter.isbn().isBlank()) {
+				matches.and(facets.isbns.getOrDefault(filter.isbn().strip(), new RoaringBitmap()));
+			}
+			if (filter.minRate() != null) {
+				RoaringBitmap rated = new RoaringBitmap();
+				for (int i = Math.max(0, (int) Math.ceil(filter.minRate() * 10 - 1e-9)); i < RATE_BUCKETS; i++) {
+					rated.or(facets.rates[i]);
+				}
+				matches.and(rated);
+			}
+			if (Boolean.TRUE.equals(filter.available())) {
+				matches.andNot(facets.lent);
+			} else if (Boolean.FALSE.equals(filter.available())) {
+				matches.and(facets.lent);
+			}
+
+			long lentCount = RoaringBitmap.andCardinality(matches, facets.lent);
+			Map<Integer, Long> ratingCounts = new LinkedHashMap<>();
+			for (int i = 0; i < RATE_BUCKETS; i++) {
+				long count = RoaringBitmap.andCardinality(matches, facets.rates[i]);
+				if (count > 0) {
+					ratingCounts.merge(i / 10, count, Long::sum);
+				}
+			}
+			return BookFacetsResponse.builder()
+					.total(matches.getLongCardinality())
+					.available(matches.getLongCardinality() - lentCount)
+					.lent(lentCount)
+					.authors(topAuthors(matches))
+					.ratings(ratingCounts)
+					.build();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private Map<String, Long> topAuthors(RoaringBitmap matches) {
+		PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(AUTHOR_RANKING.reversed());
+		if (matches.getLongCardinality() < facets.authors.size()) {
+			Map<String, Long> counts = new HashMap<>();
+			matches.forEach((int bookId) -> {
+				String authorName = facets.books.get(bookId).authorName();
+				if (authorName != null) {
+					counts.merge(authorName, 1L, Long::sum);
+				}
+			});
+			counts.entrySet().forEach(author -> offer(top, author));
+		} else {
+			facets.authors.forEach((authorName, bookIds) -> {
+				long count = RoaringBitmap.andCardinality(matches, bookIds);
+				if (count > 0) {
+					offer(top, Map.entry(authorName, count));
+				}
+			});
+		}
+		Map<String, Long> authorCounts = new LinkedHashMap<>();
+		top.stream()
+				.sorted(AUTHOR_RANKING)
+				.forEach(author -> authorCounts.put(author.getKey(), author.getValue()));
+		return authorCounts;
+	}
+
+	private void offer(PriorityQueue<Map.Entry<String, Long>> top, Map.Entry<String, Long> author) {
+		if (top.size() < maxAuthors) {
+			top.add(author);
+		} else if (maxAuthors > 0 && AUTHOR_RANKING.compare(author, top.peek()) < 0) {
+			top.poll();
+			top.add(author);
+		}
+	}
+
+	private void update(Consumer<Facets> update) {
+		lock.writeLock().lock();
+		try {
+			update.accept(facets);
+			if (pendingUpdates != null) {
+				pendingUpdates.add(update);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static final class Facets {
+
+		private final Map<Integer, BookFacetSource> books = new HashMap<>();
+		private final Map<Integer, RoaringBitmap> openBorrows = new HashMap<>();
+		private final Map<String, RoaringBitmap> authors = new HashMap<>();
+		private final Map<String, RoaringBitmap> isbns = new HashMap<>();
+		private final Map<Integer, RoaringBitmap> owners = new HashMap<>();
+		private final RoaringBitmap[] rates = Stream.generate(RoaringBitmap::new).limit(RATE_BUCKETS).toArray(RoaringBitmap[]::new);
+		private final RoaringBitmap displayable = new RoaringBitmap();
+		private final RoaringBitmap lent = new RoaringBitmap();
+
+		private void insert(BookFacetSource book) {
+			int bookId = book.id();
+			books.put(bookId, book);
+			if (book.authorName() != null) {
+				authors.computeIfAbsent(book.authorName(), key -> new RoaringBitmap()).add(bookId);
+			}
+			if (book.isbn() != null) {
+				isbns.computeIfAbsent(book.isbn(), key -> new RoaringBitmap()).add(bookId);
+			}
+			if (book.ownerId() != null) {
+				owners.computeIfAbsent(book.ownerId(), key -> new RoaringBitmap()).add(bookId);
+			}
+			rates[rateBucket(book.rate())].add(bookId);
+			if (!book.archived() && book.shareable()) {
+				displayable.add(bookId);
+			}
+		}
+
+		private void remove(Integer bookId) {
+			BookFacetSource book = books.remove(bookId);
+			if (book == null) {
+				return;
+			}
+			removeFrom(authors, book.authorName(), bookId);
+			removeFrom(isbns, book.isbn(), bookId);
+			removeFrom(owners, book.ownerId(), bookId);
+			rates[rateBucket(book.rate())].remove(bookId);
+			displayable.remove(bookId);
+		}
+
+		private void borrow(Integer bookId, Integer historyId) {
+			openBorrows.computeIfAbsent(bookId, key -> new RoaringBitmap()).add(historyId);
+			lent.add(bookId);
+		}
+
+		private void giveBack(Integer bookId, Integer historyId) {
+			removeFrom(openBorrows, bookId, historyId);
+			if (!openBorrows.containsKey(bookId)) {
+				lent.remove(bookId);
+			}
+		}
+
+		private <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+			if (key == null) {
+				return;
+			}
+			RoaringBitmap bitmap = bitmaps.get(key);
+			if (bitmap != null) {
+				bitmap.remove(id);
+				if (bitmap.isEmpty()) {
+					bitmaps.remove(key);
+				}
+			}
+		}
+
+		private int rateBucket(double rate) {
+			return Math.min(RATE_BUCKETS - 1, Math.max(0, (int) Math.round(rate * 10)));
+		}
+	}
+
+}
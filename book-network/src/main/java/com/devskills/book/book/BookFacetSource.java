@@ -0,0 +1,12 @@
+package com.devskills.book.book;
+
+public record BookFacetSource(
+		Integer id,
+		String authorName,
+		String isbn,
+		double rate,
+		Integer ownerId,
+		boolean archived,
+		boolean shareable
+) {
+}
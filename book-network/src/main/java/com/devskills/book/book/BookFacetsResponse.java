@@ -0,0 +1,24 @@
+package com.devskills.book.book;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookFacetsResponse {
+	
+	private long total;
+	private long available;
+	private long lent;
+	private Map<String, Long> authors;
+	private Map<Integer, Long> ratings;
+
+}
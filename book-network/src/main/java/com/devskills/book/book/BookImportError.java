@@ -0,0 +1,9 @@
+package com.devskills.book.book;
+
+import java.util.Set;
+
+public record BookImportError(
+		long line,
+		Set<String> errors
+) {
+}
@@ -0,0 +1,22 @@
+package com.devskills.book.book;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookImportResponse {
+	
+	private long imported;
+	private long failed;
+	private List<BookImportError> errors;
+
+}
@@ -0,0 +1,257 @@
+package com.devskills.book.book;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devskills.book.exception.OperationNotPermittedException;
+import com.devskills.book.user.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BookImportService {
+	
+	private static final List<String> REQUIRED_CSV_COLUMNS = List.of("title", "authorName", "isbn", "synopsis");
+	
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+	private final BookMapper bookMapper;
+	private final BookSuggestionIndex bookSuggestionIndex;
+	private final BookFacetIndex bookFacetIndex;
+	private final BookCatalogSnapshot catalogSnapshot;
+	
+	@Value("${application.book.import.batch-size}")
+	private int batchSize;
+	
+	@Value("${application.book.import.max-reported-errors}")
+	private int maxReportedErrors;
+	
+	public BookImportResponse importBooks(InputStream content, BookDataFormat format, Authentication connectedUser) throws IOException {
+		User user = (User) connectedUser.getPrincipal();
+		long start = System.nanoTime();
+		ImportState state = new ImportState();
+		List<PendingBook> batch = new ArrayList<>(batchSize);
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8))) {
+			Map<String, Integer> columns = null;
+			long lineNumber = 0;
+			if (format == BookDataFormat.CSV) {
+				String header = readCsvRecord(reader, reader.readLine());
+				columns = readCsvHeader(header);
+				lineNumber = 1 + countLineBreaks(header);
+			}
+			String line;
+			while ((line = reader.readLine()) != null) {
+				long rowLine = ++lineNumber;
+				if (line.isBlank()) {
+					continue;
+				}
+				if (format == BookDataFormat.CSV) {
+					line = readCsvRecord(reader, line);
+					lineNumber += countLineBreaks(line);
+				}
+				BookRequest request;
+				try {
+					request = format == BookDataFormat.CSV ? parseCsvRow(line, columns) : objectMapper.readValue(line, BookRequest.class);
+				} catch (JsonProcessingException | IllegalArgumentException e) {
+					state.reject(rowLine, Set.of("The row could not be parsed"));
+					continue;
+				}
+				Set<ConstraintViolation<BookRequest>> violations = validator.validate(request);
+				if (!violations.isEmpty()) {
+					state.reject(rowLine, violations.stream()
+							.map(ConstraintViolation::getMessage)
+							.collect(Collectors.toSet()));
+					continue;
+				}
+				batch.add(new PendingBook(rowLine, request));
+				if (batch.size() == batchSize) {
+					insertBatch(batch, user, state);
+					batch.clear();
+				}
+			}
+		}
+		if (!batch.isEmpty()) {
+			insertBatch(batch, user, state);
+		}
+		long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+		log.info(
+				"Imported {} books ({} rejected) in {} ms, {} rows/s",
+				state.imported,
+				state.failed,
+				elapsedMillis,
+				(state.imported + state.failed) * 1000 / elapsedMillis
+		);
+		return BookImportResponse.builder()
+				.imported(state.imported)
+				.failed(state.failed)
+				.errors(state.errors)
+				.build();
+	}
+	
+	private void insertBatch(List<PendingBook> batch, User user, ImportState state) {
+		try {
+			List<Book> books = transactionTemplate.execute(status -> {
+				User owner = entityManager.getReference(User.class, user.getId());
+				List<Book> persistedBooks = new ArrayList<>(batch.size());
+				for (PendingBook pendingBook : batch) {
+					Book book = bookMapper.toBook(pendingBook.request());
+					book.setId(null);
+					book.setOwner(owner);
+					entityManager.persist(book);
+					persistedBooks.add(book);
+				}
+				entityManager.flush();
+				entityManager.clear();
+				return persistedBooks;
+			});
+			books.forEach(book -> {
+				bookSuggestionIndex.index(book);
+				bookFacetIndex.index(book);
+			});
+			catalogSnapshot.invalidate();
+			state.imported += books.size();
+		} catch (RuntimeException e) {
+			if (batch.size() > 1) {
+				log.warn("A batch of {} books starting at line {} failed, retrying row by row", batch.size(), batch.get(0).line(), e);
+				batch.forEach(pendingBook -> insertBatch(List.of(pendingBook), user, state));
+			} else {
+				log.warn("The book at line {} was not imported", batch.get(0).line(), e);
+				state.reject(batch.get(0).line(), Set.of("The row could not be stored"));
+			}
+		}
+	}
+	
+	private String readCsvRecord(BufferedReader reader, String firstLine) throws IOException {
+		if (firstLine == null) {
+			return null;
+		}
+		StringBuilder record = new StringBuilder(firstLine);
+		long quotes = countQuotes(firstLine);
+		String next;
+		while (quotes % 2 == 1 && (next = reader.readLine()) != null) {
+			record.append('\n').append(next);
+			quotes += countQuotes(next);
+		}
+		return record.toString();
+	}
+	
+	private long countQuotes(String line) {
+		return line.chars().filter(c -> c == '"').count();
+	}
+	
+	private long countLineBreaks(String record) {
+		return record == null ? 0 : record.chars().filter(c -> c == '\n').count();
+	}
+	
+	private Map<String, Integer> readCsvHeader(String header) {
+		if (header == null) {
+			throw new OperationNotPermittedException("The CSV file must start with a header row");
+		}
+		List<String> names;
+		try {
+			names = parseCsvLine(header);
+		} catch (IllegalArgumentException e) {
+			throw new OperationNotPermittedException("The CSV header row could not be parsed");
+		}
+		Map<String, Integer> columns = new HashMap<>();
+		for (int i = 0; i < names.size(); i++) {
+			columns.put(names.get(i).strip(), i);
+		}
+		if (!columns.keySet().containsAll(REQUIRED_CSV_COLUMNS)) {
+			throw new OperationNotPermittedException("The CSV header must contain the columns " + String.join(",", REQUIRED_CSV_COLUMNS));
+		}
+		return columns;
+	}
+	
+	private BookRequest parseCsvRow(String line, Map<String, Integer> columns) {
+		List<String> values = parseCsvLine(line);
+		return new BookRequest(
+				null,
+				csvValue(values, columns.get("title")),
+				csvValue(values, columns.get("authorName")),
+				csvValue(values, columns.get("isbn")),
+				csvValue(values, columns.get("synopsis")),
+				Boolean.parseBoolean(csvValue(values, columns.get("shareable")))
+		);
+	}
+	
+	private String csvValue(List<String> values, Integer column) {
+		if (column == null || column >= values.size()) {
+			return null;
+		}
+		return values.get(column);
+	}
+	
+	private List<String> parseCsvLine(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					value.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					value.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("Unterminated quoted value");
+		}
+		values.add(value.toString());
+		return values;
+	}
+	
+	private record PendingBook(long line, BookRequest request) {
+	}
+	
+	private class ImportState {
+		
+		private long imported;
+		private long failed;
+		private final List<BookImportError> errors = new ArrayList<>();
+		
+		private void reject(long line, Set<String> messages) {
+			failed++;
+			if (errors.size() < maxReportedErrors) {
+				errors.add(new BookImportError(line, messages));
+			}
+		}
+	}
+
+}
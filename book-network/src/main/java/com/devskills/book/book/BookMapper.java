@@ -1,14 +1,22 @@
 package com.devskills.book.book;
 
+import java.nio.ByteBuffer;
+
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import com.devskills.book.file.FileUtils;
+import com.devskills.book.file.CoverSize;
+import com.devskills.book.file.FileCache;
 import com.devskills.book.history.BookTransactionHistory;
 
 import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
 
 @Service
+@RequiredArgsConstructor
 public class BookMapper {
+	
+	private final FileCache fileCache;
 
 	public Book toBook(@Valid BookRequest request) {
 		return Book.builder()
@@ -29,12 +37,32 @@ public class BookMapper {
 				.authorName(book.getAuthorName())
 				.isbn(book.getIsbn())
 				.synopsis(book.getSynopsis())
-				.rate(book.getrate())
+				.rate(book.getRate())
 				.archived(book.isArchived())
 				.shareable(book.isShareable())
 				.owner(book.getOwner().fullName())
-				.cover(FileUtils.readFileFromLocation(book.getBookCover()))
+				.cover(fileCache.read(book.getBookCover()))
+				.build();
+	}
+	
+	public BookResponse toBookResponse(BookSummary summary, CoverMode coverMode, CoverSize coverSize) {
+		var response = BookResponse.builder()
+				.id(summary.id())
+				.title(summary.title())
+				.authorName(summary.authorName())
+				.isbn(summary.isbn())
+				.synopsis(summary.synopsis())
+				.rate(summary.rate())
+				.archived(summary.archived())
+				.shareable(summary.shareable())
+				.owner(summary.owner())
 				.build();
+		if (coverMode == CoverMode.URL) {
+			response.setCoverUrl(toCoverUrl(summary.id(), summary.bookCover(), coverSize));
+		} else {
+			response.setCover(readCover(summary.bookCover(), coverSize));
+		}
+		return response;
 	}
 	
 	public BorrowedBookResponse toBorrowedBookResponse(BookTransactionHistory history) {
@@ -43,10 +71,30 @@ public class BookMapper {
 				.title(history.getBook().getTitle())
 				.authorName(history.getBook().getAuthorName())
 				.isbn(history.getBook().getIsbn())
-				.rate(history.getBook().getrate())
+				.rate(history.getBook().getRate())
 				.returned(history.isReturned())
 				.returnApproved(history.isReturnApproved())
 				.build();
 	}
+	
+	private ByteBuffer readCover(String bookCover, CoverSize coverSize) {
+		ByteBuffer cover = fileCache.read(coverSize.resolve(bookCover));
+		if (cover == null && coverSize != CoverSize.ORIGINAL) {
+			cover = fileCache.read(bookCover);
+		}
+		return cover;
+	}
+	
+	private String toCoverUrl(Integer bookId, String bookCover, CoverSize coverSize) {
+		if (bookCover == null) {
+			return null;
+		}
+		return ServletUriComponentsBuilder.fromCurrentContextPath()
+				.path("/books/{book-id}/cover")
+				.queryParam("size", coverSize)
+				.queryParam("v", Integer.toHexString(bookCover.hashCode()))
+				.buildAndExpand(bookId)
+				.toUriString();
+	}
 
 }
@@ -0,0 +1,60 @@
+package com.devskills.book.book;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookRateReconciler {
+	
+	private static final long RECONCILE_LOCK = 0x626f6f6b72617465L;
+	
+	private final BookRepository bookRepository;
+	private final BookCatalogSnapshot catalogSnapshot;
+	
+	@Value("${application.book.rate.reconcile-on-startup}")
+	private boolean reconcileOnStartup;
+	
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@Transactional
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		if (reconcileOnStartup) {
+			reconcile();
+			return;
+		}
+		if (!bookRepository.tryAdvisoryLock(RECONCILE_LOCK)) {
+			log.info("Rate backfill is already running on another node, skipping");
+			return;
+		}
+		int updatedBooks = bookRepository.backfillMissingRates();
+		if (updatedBooks > 0) {
+			catalogSnapshot.invalidate();
+			log.info("Rate aggregates backfilled for {} books", updatedBooks);
+		}
+	}
+	
+	@Transactional
+	@Scheduled(cron = "${application.book.rate.reconcile-cron}")
+	public void reconcile() {
+		if (!bookRepository.tryAdvisoryLock(RECONCILE_LOCK)) {
+			log.info("Rate reconciliation is already running on another node, skipping");
+			return;
+		}
+		int updatedBooks = bookRepository.reconcileRateTotals();
+		bookRepository.reconcileRates();
+		catalogSnapshot.invalidate();
+		log.info("Rate aggregates rebuilt for {} books", updatedBooks);
+	}
+
+}
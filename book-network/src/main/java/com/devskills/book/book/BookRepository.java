@@ -1,20 +1,235 @@
 package com.devskills.book.book;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
-public interface BookRepository extends JpaRepository<Book, Integer>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Integer>, JpaSpecificationExecutor<Book>, BookSearchRepository {
+
+	@Query(value = """
+			SELECT new com.devskills.book.book.BookSummary(
+				book.id, book.title, book.authorName, book.isbn, book.synopsis,
+				CONCAT(owner.firstname, ' ', owner.lastname),
+				book.rate,
+				book.archived, book.shareable, book.bookCover, book.createdDate
+			)
+			FROM Book book
+			JOIN book.owner owner
+			WHERE owner.id = :ownerId
+			""",
+			countQuery = """
+			SELECT COUNT(book)
+			FROM Book book
+			WHERE book.owner.id = :ownerId
+			""")
+	Page<BookSummary> findAllBooksByOwner(Pageable pageable, Integer ownerId);
 
 	@Query("""
-			SELECT book
+			SELECT new com.devskills.book.book.BookSummary(
+				book.id, book.title, book.authorName, book.isbn, book.synopsis,
+				CONCAT(owner.firstname, ' ', owner.lastname),
+				book.rate,
+				book.archived, book.shareable, book.bookCover, book.createdDate
+			)
+			FROM Book book
+			JOIN book.owner owner
+			WHERE owner.id = :ownerId
+			""")
+	Slice<BookSummary> findBooksByOwnerSlice(Pageable pageable, Integer ownerId);
+
+	@Query("""
+			SELECT COUNT(book)
+			FROM Book book
+			WHERE book.owner.id = :ownerId
+			""")
+	long countBooksByOwner(Integer ownerId);
+
+	@Query("""
+			SELECT new com.devskills.book.book.BookSummary(
+				book.id, book.title, book.authorName, book.isbn, book.synopsis,
+				CONCAT(owner.firstname, ' ', owner.lastname),
+				book.rate,
+				book.archived, book.shareable, book.bookCover, book.createdDate
+			)
+			FROM Book book
+			JOIN book.owner owner
+			WHERE book.archived = false
+			AND book.shareable = true
+			AND owner.id != :userId
+			AND (book.createdDate, book.id) < (:createdDate, :id)
+			ORDER BY book.createdDate DESC, book.id DESC
+			""")
+	List<BookSummary> findDisplayableBooksBefore(Integer userId, LocalDateTime createdDate, Integer id, Limit limit);
+
+	@Query("""
+			SELECT new com.devskills.book.book.BookSummary(
+				book.id, book.title, book.authorName, book.isbn, book.synopsis,
+				CONCAT(owner.firstname, ' ', owner.lastname),
+				book.rate,
+				book.archived, book.shareable, book.bookCover, book.createdDate
+			)
 			FROM Book book
+			JOIN book.owner owner
+			WHERE owner.id = :ownerId
+			AND (book.createdDate, book.id) < (:createdDate, :id)
+			ORDER BY book.createdDate DESC, book.id DESC
+			""")
+	List<BookSummary> findBooksByOwnerBefore(Integer ownerId, LocalDateTime createdDate, Integer id, Limit limit);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+			SELECT new com.devskills.book.book.BookCatalogEntry(
+				book.id, book.title, book.authorName, book.isbn, book.synopsis,
+				CONCAT(owner.firstname, ' ', owner.lastname),
+				book.rate, book.bookCover, book.createdDate, owner.id
+			)
+			FROM Book book
+			JOIN book.owner owner
 			WHERE book.archived = false
 			AND book.shareable = true
-			AND book.owner.id != :userId
+			ORDER BY book.createdDate DESC, book.id DESC
+			""")
+	Stream<BookCatalogEntry> streamCatalogEntries();
+
+	@Query("""
+			SELECT GREATEST(MAX(book.createdDate), MAX(book.lastModifiedDate))
+			FROM Book book
+			""")
+	LocalDateTime findCatalogWatermark();
+
+	@Query("""
+			SELECT new com.devskills.book.book.BookCatalogChange(book.id, COALESCE(book.lastModifiedDate, book.createdDate))
+			FROM Book book
+			WHERE book.createdDate > :since
+			OR book.lastModifiedDate > :since
+			""")
+	List<BookCatalogChange> findCatalogChangesAfter(LocalDateTime since, Limit limit);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+			SELECT new com.devskills.book.book.BookSuggestionSource(
+				book.id, book.title, book.authorName, book.owner.id, book.archived, book.shareable, book.rate
+			)
+			FROM Book book
+			""")
+	Stream<BookSuggestionSource> streamSuggestionSources();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+			SELECT new com.devskills.book.book.BookFacetSource(
+				book.id, book.authorName, book.isbn, book.rate, book.owner.id, book.archived, book.shareable
+			)
+			FROM Book book
+			""")
+	Stream<BookFacetSource> streamFacetSources();
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("""
+			SELECT book
+			FROM Book book
+			WHERE book.id = :bookId
+			""")
+	Optional<Book> findByIdForUpdate(Integer bookId);
+
+	@Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+	boolean tryAdvisoryLock(long key);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+			SELECT new com.devskills.book.book.BookExportRow(
+				book.id, book.title, book.authorName, book.isbn, book.synopsis,
+				book.rate, book.archived, book.shareable, book.createdDate
+			)
+			FROM Book book
+			WHERE book.owner.id = :ownerId
+			ORDER BY book.id
+			""")
+	Stream<BookExportRow> streamExportRowsByOwner(Integer ownerId);
+
+	@Query("""
+			SELECT book.bookCover
+			FROM Book book
+			WHERE book.id = :bookId
+			""")
+	Optional<String> findBookCoverById(Integer bookId);
+
+	@Modifying
+	@Query("""
+			UPDATE Book book
+			SET book.bookCover = SUBSTRING(book.bookCover, LENGTH(:prefix) + 1)
+			WHERE book.bookCover LIKE CONCAT(:prefix, '%')
+			""")
+	int stripBookCoverPrefix(String prefix);
+
+	@Modifying
+	@Query("""
+			UPDATE Book book
+			SET book.rateSum = (
+				SELECT COALESCE(SUM(feedback.note), 0)
+				FROM Feedback feedback
+				WHERE feedback.book.id = book.id
+			),
+			book.rateCount = (
+				SELECT COUNT(feedback.note)
+				FROM Feedback feedback
+				WHERE feedback.book.id = book.id
+			)
+			""")
+	int reconcileRateTotals();
+
+	@Modifying
+	@Query("""
+			UPDATE Book book
+			SET book.rateSum = (
+				SELECT COALESCE(SUM(feedback.note), 0)
+				FROM Feedback feedback
+				WHERE feedback.book.id = book.id
+			),
+			book.rateCount = (
+				SELECT COUNT(feedback.note)
+				FROM Feedback feedback
+				WHERE feedback.book.id = book.id
+			),
+			book.rate = (
+				SELECT COALESCE(ROUND(AVG(feedback.note), 1), 0)
+				FROM Feedback feedback
+				WHERE feedback.book.id = book.id
+			),
+			book.lastModifiedDate = CURRENT_TIMESTAMP
+			WHERE book.rateCount = 0
+			AND EXISTS (
+				SELECT 1
+				FROM Feedback feedback
+				WHERE feedback.book.id = book.id
+				AND feedback.note IS NOT NULL
+			)
+			""")
+	int backfillMissingRates();
+
+	@Modifying
+	@Query("""
+			UPDATE Book book
+			SET book.rate = CASE
+				WHEN book.rateCount = 0 THEN 0
+				ELSE ROUND(book.rateSum / book.rateCount, 1)
+			END
 			""")
-	Page<Book> findAllDisplayableBooks(Pageable pageable, Integer userId);
+	int reconcileRates();
 
 }
@@ -1,5 +1,8 @@
 package com.devskills.book.book;
 
+import java.nio.ByteBuffer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -19,7 +22,9 @@ public class BookResponse {
 	private String isbn;
 	private String synopsis;
 	private String owner;
-	private byte[] cover;
+	@Schema(type = "string", format = "byte")
+	private ByteBuffer cover;
+	private String coverUrl;
 	private double rate;
 	private boolean archived;
 	private boolean shareable;
@@ -0,0 +1,7 @@
+package com.devskills.book.book;
+
+public record BookSearchHit(
+		BookSummary book,
+		float rank
+) {
+}
@@ -0,0 +1,30 @@
+package com.devskills.book.book;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookSearchIndex {
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void createIndex() {
+		jdbcTemplate.execute("""
+				ALTER TABLE book ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+					setweight(to_tsvector('english', coalesce(title, '')), 'A')
+					|| setweight(to_tsvector('english', coalesce(author_name, '')), 'B')
+					|| setweight(to_tsvector('english', coalesce(synopsis, '')), 'C')
+				) STORED""");
+		jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_book_search_vector ON book USING GIN (search_vector)");
+		log.info("Book search index is ready");
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.devskills.book.book;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.devskills.book.common.RankCursor;
+
+public interface BookSearchRepository {
+
+	Page<BookSummary> findSummaries(Specification<Book> filter, Pageable pageable);
+
+	Slice<BookSummary> findSummarySlice(Specification<Book> filter, Pageable pageable);
+
+	List<BookSearchHit> search(String searchQuery, Specification<Book> filter, RankCursor after, int limit);
+
+}
@@ -0,0 +1,165 @@
+package com.devskills.book.book;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.devskills.book.common.RankCursor;
+import com.devskills.book.user.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class BookSearchRepositoryImpl implements BookSearchRepository {
+	
+	private final EntityManager entityManager;
+
+	@Override
+	public Page<BookSummary> findSummaries(Specification<Book> filter, Pageable pageable) {
+		List<BookSummary> content = summaryQuery(filter, pageable)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize())
+				.getResultList()
+				.stream()
+				.map(this::toSummary)
+				.toList();
+		return PageableExecutionUtils.getPage(content, pageable, () -> count(filter));
+	}
+
+	@Override
+	public Slice<BookSummary> findSummarySlice(Specification<Book> filter, Pageable pageable) {
+		List<BookSummary> rows = summaryQuery(filter, pageable)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize() + 1)
+				.getResultList()
+				.stream()
+				.map(this::toSummary)
+				.toList();
+		boolean hasNext = rows.size() > pageable.getPageSize();
+		return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+	}
+
+	@Override
+	public List<BookSearchHit> search(String searchQuery, Specification<Book> filter, RankCursor after, int limit) {
+		HibernateCriteriaBuilder criteriaBuilder = criteriaBuilder();
+		CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+		Root<Book> book = query.from(Book.class);
+		Join<Book, User> owner = book.join("owner");
+		Expression<Float> rank = criteriaBuilder.function(
+				"fts_rank",
+				Float.class,
+				book.get("id"),
+				criteriaBuilder.value(searchQuery)
+		);
+		
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(BookSpecification.matchesSearch(searchQuery).and(filter).toPredicate(book, query, criteriaBuilder));
+		if (after != null) {
+			predicates.add(criteriaBuilder.or(
+					criteriaBuilder.lessThan(rank, after.rank()),
+					criteriaBuilder.and(
+							criteriaBuilder.equal(rank, after.rank()),
+							criteriaBuilder.lessThan(book.get("id"), after.id())
+					)
+			));
+		}
+		
+		List<Selection<?>> selections = new ArrayList<>(summarySelections(book, owner));
+		selections.add(rank);
+		query.multiselect(selections)
+				.where(predicates.toArray(Predicate[]::new))
+				.orderBy(criteriaBuilder.desc(rank), criteriaBuilder.desc(book.get("id")));
+		
+		return entityManager.createQuery(query)
+				.setMaxResults(limit)
+				.getResultList()
+				.stream()
+				.map(tuple -> new BookSearchHit(toSummary(tuple), tuple.get(11, Float.class)))
+				.toList();
+	}
+	
+	private TypedQuery<Tuple> summaryQuery(Specification<Book> filter, Pageable pageable) {
+		HibernateCriteriaBuilder criteriaBuilder = criteriaBuilder();
+		CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+		Root<Book> book = query.from(Book.class);
+		Join<Book, User> owner = book.join("owner");
+		query.multiselect(summarySelections(book, owner));
+		Predicate predicate = filter.toPredicate(book, query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		if (pageable.getSort().isSorted()) {
+			query.orderBy(QueryUtils.toOrders(pageable.getSort(), book, criteriaBuilder));
+		}
+		return entityManager.createQuery(query);
+	}
+	
+	private long count(Specification<Book> filter) {
+		HibernateCriteriaBuilder criteriaBuilder = criteriaBuilder();
+		CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+		Root<Book> book = query.from(Book.class);
+		query.select(criteriaBuilder.count(book));
+		Predicate predicate = filter.toPredicate(book, query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		return entityManager.createQuery(query).getSingleResult();
+	}
+	
+	private List<Selection<?>> summarySelections(Root<Book> book, Join<Book, User> owner) {
+		HibernateCriteriaBuilder criteriaBuilder = criteriaBuilder();
+		return List.of(
+				book.get("id"),
+				book.get("title"),
+				book.get("authorName"),
+				book.get("isbn"),
+				book.get("synopsis"),
+				criteriaBuilder.concat(criteriaBuilder.concat(owner.get("firstname"), " "), owner.get("lastname")),
+				book.get("rate"),
+				book.get("archived"),
+				book.get("shareable"),
+				book.get("bookCover"),
+				book.get("createdDate")
+		);
+	}
+	
+	private HibernateCriteriaBuilder criteriaBuilder() {
+		return entityManager.unwrap(Session.class).getCriteriaBuilder();
+	}
+	
+	private BookSummary toSummary(Tuple tuple) {
+		return new BookSummary(
+				tuple.get(0, Integer.class),
+				tuple.get(1, String.class),
+				tuple.get(2, String.class),
+				tuple.get(3, String.class),
+				tuple.get(4, String.class),
+				tuple.get(5, String.class),
+				tuple.get(6, Double.class),
+				tuple.get(7, Boolean.class),
+				tuple.get(8, Boolean.class),
+				tuple.get(9, String.class),
+				tuple.get(10, LocalDateTime.class)
+		);
+	}
+
+}
@@ -2,22 +2,35 @@ package com.devskills.book.book;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.devskills.book.common.ApproximateCounter;
+import com.devskills.book.common.CountMode;
+import com.devskills.book.common.Cursor;
+import com.devskills.book.common.CursorPageResponse;
 import com.devskills.book.common.PageResponse;
+import com.devskills.book.common.RankCursor;
+import com.devskills.book.common.SliceResponse;
+import com.devskills.book.cover.CoverJobResponse;
+import com.devskills.book.cover.CoverJobService;
 import com.devskills.book.exception.OperationNotPermittedException;
-import com.devskills.book.file.FileStorageService;
+import com.devskills.book.file.BlobStorage;
+import com.devskills.book.file.CoverSize;
 import com.devskills.book.history.BookTransactionHistory;
 import com.devskills.book.history.BookTransactionHistoryRepository;
 import com.devskills.book.user.User;
-import static com.devskills.book.book.BookSpecification.withOwnerId;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
@@ -29,14 +42,23 @@ public class BookService {
 	
 	private final BookRepository bookRepository;
 	private final BookTransactionHistoryRepository transactionHistoryRepository;
-	private final FileStorageService  fileStorageService;
+	private final CoverJobService coverJobService;
+	private final BlobStorage blobStorage;
 	private final BookMapper bookMapper;
+	private final ApproximateCounter approximateCounter;
+	private final BookSuggestionIndex bookSuggestionIndex;
+	private final BookFacetIndex bookFacetIndex;
+	private final BookCatalogSnapshot catalogSnapshot;
 	
 	public Integer save(@Valid BookRequest request, Authentication connectedUser) {
 		User user = (User) connectedUser.getPrincipal();
 		Book book = bookMapper.toBook(request);
 		book.setOwner(user);
-		return bookRepository.save(book).getId();
+		Book savedBook = bookRepository.save(book);
+		bookSuggestionIndex.index(savedBook);
+		bookFacetIndex.index(savedBook);
+		catalogSnapshot.index(savedBook);
+		return savedBook.getId();
 	}
 
 	public BookResponse findById(Integer bookId) {
@@ -45,13 +67,33 @@ public class BookService {
 				.orElseThrow(() -> new EntityNotFoundException("No book found with the ID:: " + bookId));
 	}
 
-	public PageResponse<BookResponse> findAllBooks(int page, int size, Authentication connectedUser) {
+	public Resource findBookCover(Integer bookId, CoverSize coverSize) {
+		String bookCover = bookRepository.findBookCoverById(bookId)
+				.orElseThrow(() -> new EntityNotFoundException("No book found with the ID:: " + bookId));
+		Resource cover = blobStorage.load(coverSize.resolve(bookCover));
+		if (cover == null && coverSize != CoverSize.ORIGINAL) {
+			cover = blobStorage.load(bookCover);
+		}
+		if (cover == null) {
+			throw new EntityNotFoundException("No cover found for the book with the ID:: " + bookId);
+		}
+		return cover;
+	}
+
+	public CoverJobResponse findCoverJob(Integer jobId, Authentication connectedUser) {
+		return coverJobService.findById(jobId, connectedUser);
+	}
+
+	public PageResponse<BookResponse> findAllBooks(int page, int size, BookCatalogFilter filter, BookSort sort, CoverMode coverMode, CoverSize coverSize, Authentication connectedUser) {
 		User user = (User) connectedUser.getPrincipal();
-		Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
-		Page<Book> books = bookRepository.findAllDisplayableBooks(pageable, user.getId());
+		Pageable pageable = PageRequest.of(page, size, sort.toSort());
+		Page<BookSummary> books = filter.isEmpty() && sort == BookSort.RECENT
+				? catalogSnapshot.findPage(user.getId(), page, size)
+						.orElseGet(() -> bookRepository.findSummaries(BookSpecification.catalogFor(user.getId(), filter), pageable))
+				: bookRepository.findSummaries(BookSpecification.catalogFor(user.getId(), filter), pageable);
 		
 		List<BookResponse> bookResponses = books.stream()
-				.map(bookMapper::toBookResponse)
+				.map(book -> bookMapper.toBookResponse(book, coverMode, coverSize))
 				.toList();
 		return new PageResponse<>(
 				bookResponses,
@@ -64,13 +106,13 @@ public class BookService {
 		);
 	}
 
-	public PageResponse<BookResponse> findAllBooksByOwner(int page, int size, Authentication connectedUser) {
+	public PageResponse<BookResponse> findAllBooksByOwner(int page, int size, CoverMode coverMode, CoverSize coverSize, Authentication connectedUser) {
 		User user = (User) connectedUser.getPrincipal();
 		Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
-		Page<Book> books = bookRepository.findAll(withOwnerId(user.getId()), pageable);
+		Page<BookSummary> books = bookRepository.findAllBooksByOwner(pageable, user.getId());
 		
 		List<BookResponse> bookResponses = books.stream()
-				.map(bookMapper::toBookResponse)
+				.map(book -> bookMapper.toBookResponse(book, coverMode, coverSize))
 				.toList();
 		return new PageResponse<>(
 				bookResponses,
@@ -121,6 +163,137 @@ public class BookService {
 		);
 	}
 
+	public SliceResponse<BookResponse> findAllBooks(int page, int size, CountMode countMode, BookCatalogFilter filter, BookSort sort, CoverMode coverMode, CoverSize coverSize, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Pageable pageable = PageRequest.of(page, size, sort.toSort());
+		Specification<Book> specification = BookSpecification.catalogFor(user.getId(), filter);
+		Slice<BookSummary> books = bookRepository.findSummarySlice(specification, pageable);
+		return approximateCounter.toSliceResponse(
+				books,
+				book -> bookMapper.toBookResponse(book, coverMode, coverSize),
+				countMode,
+				"books.displayable." + user.getId() + "." + filter,
+				() -> bookRepository.count(specification)
+		);
+	}
+
+	public SliceResponse<BookResponse> findAllBooksByOwner(int page, int size, CountMode countMode, CoverMode coverMode, CoverSize coverSize, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
+		Slice<BookSummary> books = bookRepository.findBooksByOwnerSlice(pageable, user.getId());
+		return approximateCounter.toSliceResponse(
+				books,
+				book -> bookMapper.toBookResponse(book, coverMode, coverSize),
+				countMode,
+				"books.owner." + user.getId(),
+				() -> bookRepository.countBooksByOwner(user.getId())
+		);
+	}
+
+	public SliceResponse<BorrowedBookResponse> findAllBorrowedBooks(int page, int size, CountMode countMode, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
+		Slice<BookTransactionHistory> allBorrowedBooks = transactionHistoryRepository.findBorrowedBooksSlice(pageable, user.getId());
+		return approximateCounter.toSliceResponse(
+				allBorrowedBooks,
+				bookMapper::toBorrowedBookResponse,
+				countMode,
+				"books.borrowed." + user.getId(),
+				() -> transactionHistoryRepository.countBorrowedBooks(user.getId())
+		);
+	}
+
+	public SliceResponse<BorrowedBookResponse> findAllReturnedBooks(int page, int size, CountMode countMode, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
+		Slice<BookTransactionHistory> allBorrowedBooks = transactionHistoryRepository.findReturnedBooksSlice(pageable, user.getId());
+		return approximateCounter.toSliceResponse(
+				allBorrowedBooks,
+				bookMapper::toBorrowedBookResponse,
+				countMode,
+				"books.returned." + user.getId(),
+				() -> transactionHistoryRepository.countReturnedBooks(user.getId())
+		);
+	}
+
+	public CursorPageResponse<BookResponse> findAllBooks(String cursor, int size, BookCatalogFilter filter, BookSort sort, CoverMode coverMode, CoverSize coverSize, Authentication connectedUser) {
+		if (!filter.isEmpty() || sort != BookSort.RECENT) {
+			throw new OperationNotPermittedException("The cursor pagination only supports the recent sort without filters");
+		}
+		User user = (User) connectedUser.getPrincipal();
+		Cursor position = Cursor.decode(cursor);
+		List<BookSummary> books = bookRepository.findDisplayableBooksBefore(user.getId(), position.createdDate(), position.id(), Limit.of(size + 1));
+		return toCursorPage(
+				books,
+				size,
+				book -> bookMapper.toBookResponse(book, coverMode, coverSize),
+				book -> new Cursor(book.createdDate(), book.id()).encode()
+		);
+	}
+
+	public CursorPageResponse<BookResponse> findAllBooksByOwner(String cursor, int size, CoverMode coverMode, CoverSize coverSize, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Cursor position = Cursor.decode(cursor);
+		List<BookSummary> books = bookRepository.findBooksByOwnerBefore(user.getId(), position.createdDate(), position.id(), Limit.of(size + 1));
+		return toCursorPage(
+				books,
+				size,
+				book -> bookMapper.toBookResponse(book, coverMode, coverSize),
+				book -> new Cursor(book.createdDate(), book.id()).encode()
+		);
+	}
+
+	public CursorPageResponse<BorrowedBookResponse> findAllBorrowedBooks(String cursor, int size, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Cursor position = Cursor.decode(cursor);
+		List<BookTransactionHistory> allBorrowedBooks = transactionHistoryRepository.findBorrowedBooksBefore(user.getId(), position.createdDate(), position.id(), Limit.of(size + 1));
+		return toCursorPage(
+				allBorrowedBooks,
+				size,
+				bookMapper::toBorrowedBookResponse,
+				history -> new Cursor(history.getCreatedDate(), history.getId()).encode()
+		);
+	}
+
+	public CursorPageResponse<BorrowedBookResponse> findAllReturnedBooks(String cursor, int size, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Cursor position = Cursor.decode(cursor);
+		List<BookTransactionHistory> allBorrowedBooks = transactionHistoryRepository.findReturnedBooksBefore(user.getId(), position.createdDate(), position.id(), Limit.of(size + 1));
+		return toCursorPage(
+				allBorrowedBooks,
+				size,
+				bookMapper::toBorrowedBookResponse,
+				history -> new Cursor(history.getCreatedDate(), history.getId()).encode()
+		);
+	}
+
+	public BookFacetsResponse findBookFacets(BookCatalogFilter filter, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		return bookFacetIndex.facets(filter, user.getId());
+	}
+
+	public List<BookSuggestion> suggestBooks(String prefix, int limit, Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		return bookSuggestionIndex.suggest(prefix, limit, user.getId());
+	}
+
+	public CursorPageResponse<BookResponse> searchBooks(String searchQuery, boolean ownedOnly, String cursor, int size, CoverMode coverMode, CoverSize coverSize, Authentication connectedUser) {
+		if (searchQuery == null || searchQuery.isBlank()) {
+			throw new OperationNotPermittedException("The search query must not be empty");
+		}
+		User user = (User) connectedUser.getPrincipal();
+		Specification<Book> filter = ownedOnly
+				? BookSpecification.withOwnerId(user.getId())
+				: BookSpecification.isDisplayableTo(user.getId());
+		List<BookSearchHit> hits = bookRepository.search(searchQuery.strip(), filter, RankCursor.decode(cursor), size + 1);
+		return toCursorPage(
+				hits,
+				size,
+				hit -> bookMapper.toBookResponse(hit.book(), coverMode, coverSize),
+				hit -> new RankCursor(hit.rank(), hit.book().id()).encode()
+		);
+	}
+
 	public Integer updateShareableStatus(Integer bookId, Authentication connectedUser) {
 		Book book = bookRepository.findById(bookId)
 				.orElseThrow(() -> new EntityNotFoundException("No book found with the ID::" + bookId));
@@ -129,7 +302,11 @@ public class BookService {
 			throw new OperationNotPermittedException("You cannot update others books shareable status");
 		}
 		book.setShareable(!book.isShareable());
-		return bookRepository.save(book).getId();
+		Book savedBook = bookRepository.save(book);
+		bookSuggestionIndex.index(savedBook);
+		bookFacetIndex.index(savedBook);
+		catalogSnapshot.index(savedBook);
+		return savedBook.getId();
 	}
 
 	public Integer updateArchivedStatus(Integer bookId, Authentication connectedUser) {
@@ -140,7 +317,11 @@ public class BookService {
 			throw new OperationNotPermittedException("You cannot update others books archived status");
 		}
 		book.setArchived(!book.isArchived());
-		return bookRepository.save(book).getId();
+		Book savedBook = bookRepository.save(book);
+		bookSuggestionIndex.index(savedBook);
+		bookFacetIndex.index(savedBook);
+		catalogSnapshot.index(savedBook);
+		return savedBook.getId();
 	}
 
 	public Integer borrowBook(Integer bookId, Authentication connectedUser) {
@@ -161,10 +342,13 @@ public class BookService {
 		BookTransactionHistory bookTransactionHistory = BookTransactionHistory.builder()
 				.user(user)
 				.book(book)
+				.ownerId(book.getOwner().getId())
 				.returned(false)
 				.returnApproved(false)
 				.build();
-		return transactionHistoryRepository.save(bookTransactionHistory).getId();
+		Integer historyId = transactionHistoryRepository.save(bookTransactionHistory).getId();
+		bookFacetIndex.borrowed(bookId, historyId);
+		return historyId;
 	}
 
 	public Integer returnBorrowedBook(Integer bookId, Authentication connectedUser) {
@@ -196,16 +380,32 @@ public class BookService {
 		BookTransactionHistory bookTransactionHistory = transactionHistoryRepository.findByBookIdAndOwnerId(bookId, user.getId())
 				.orElseThrow(() -> new OperationNotPermittedException("The book is not returned yet. You cannot approve its return"));
 		bookTransactionHistory.setReturnApproved(true);
-		return transactionHistoryRepository.save(bookTransactionHistory).getId();
+		Integer historyId = transactionHistoryRepository.save(bookTransactionHistory).getId();
+		bookFacetIndex.returnApproved(bookId, historyId);
+		return historyId;
 	}
 
-	public void uploadBookCoverPicture(MultipartFile file, Authentication connectedUser, Integer bookId) {
-		Book book = bookRepository.findById(bookId)
-				.orElseThrow(() -> new EntityNotFoundException("No book found with the ID::" + bookId));
+	public Integer uploadBookCoverPicture(MultipartFile file, Authentication connectedUser, Integer bookId) {
+		if (!bookRepository.existsById(bookId)) {
+			throw new EntityNotFoundException("No book found with the ID::" + bookId);
+		}
 		User user = (User) connectedUser.getPrincipal();
-		var bookCover = fileStorageService.saveFile(file, user.getId());
-		book.setBookCover(bookCover);
-		bookRepository.save(book);
+		return coverJobService.enqueue(file, bookId, user.getId());
+	}
+
+	private <T, R> CursorPageResponse<R> toCursorPage(List<T> rows, int size, Function<T, R> mapper, Function<T, String> cursorOf) {
+		boolean hasNext = rows.size() > size;
+		List<T> pageRows = hasNext ? rows.subList(0, size) : rows;
+		List<R> content = pageRows.stream()
+				.map(mapper)
+				.toList();
+		String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+		return new CursorPageResponse<>(
+				content,
+				content.size(),
+				nextCursor,
+				hasNext
+		);
 	}
 
 }
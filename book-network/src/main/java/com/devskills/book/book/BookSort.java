@@ -0,0 +1,19 @@
+package com.devskills.book.book;
+
+import org.springframework.data.domain.Sort;
+
+public enum BookSort {
+	RECENT(Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id"))),
+	TITLE(Sort.by(Sort.Order.asc("title"), Sort.Order.asc("id"))),
+	RATING(Sort.by(Sort.Order.desc("rate"), Sort.Order.desc("id")));
+	
+	private final Sort sort;
+	
+	BookSort(Sort sort) {
+		this.sort = sort;
+	}
+	
+	public Sort toSort() {
+		return sort;
+	}
+}
@@ -1,11 +1,78 @@
 package com.devskills.book.book;
 
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 
+import com.devskills.book.history.BookTransactionHistory;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
 public class BookSpecification {
 	
 	public static Specification<Book> withOwnerId(Integer ownerId) {
 		return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("owner").get("id"), ownerId);
 	}
+	
+	public static Specification<Book> isDisplayableTo(Integer userId) {
+		return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+				criteriaBuilder.isFalse(root.get("archived")),
+				criteriaBuilder.isTrue(root.get("shareable")),
+				criteriaBuilder.notEqual(root.get("owner").get("id"), userId)
+		);
+	}
+	
+	public static Specification<Book> withAuthorName(String authorName) {
+		return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("authorName"), authorName);
+	}
+	
+	public static Specification<Book> withIsbn(String isbn) {
+		return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("isbn"), isbn);
+	}
+	
+	public static Specification<Book> withMinimumRate(double minRate) {
+		return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("rate"), minRate);
+	}
+	
+	public static Specification<Book> isAvailable(boolean available) {
+		return (root, query, criteriaBuilder) -> {
+			Subquery<Integer> lent = query.subquery(Integer.class);
+			Root<BookTransactionHistory> history = lent.from(BookTransactionHistory.class);
+			lent.select(history.get("id"))
+					.where(
+							criteriaBuilder.equal(history.get("book"), root),
+							criteriaBuilder.isFalse(history.get("returnApproved"))
+					);
+			return available ? criteriaBuilder.not(criteriaBuilder.exists(lent)) : criteriaBuilder.exists(lent);
+		};
+	}
+	
+	public static Specification<Book> matchesSearch(String searchQuery) {
+		return (root, query, criteriaBuilder) -> criteriaBuilder.isTrue(
+				criteriaBuilder.function(
+						"fts_match",
+						Boolean.class,
+						root.get("id"),
+						((HibernateCriteriaBuilder) criteriaBuilder).value(searchQuery)
+				)
+		);
+	}
+	
+	public static Specification<Book> catalogFor(Integer userId, BookCatalogFilter filter) {
+		Specification<Book> specification = isDisplayableTo(userId);
+		if (filter.authorName() != null && !filter.authorName().isBlank()) {
+			specification = specification.and(withAuthorName(filter.authorName().strip()));
+		}
+		if (filter.isbn() != null && !filter.isbn().isBlank()) {
+			specification = specification.and(withIsbn(filter.isbn().strip()));
+		}
+		if (filter.minRate() != null) {
+			specification = specification.and(withMinimumRate(filter.minRate()));
+		}
+		if (filter.available() != null) {
+			specification = specification.and(isAvailable(filter.available()));
+		}
+		return specification;
+	}
 
 }
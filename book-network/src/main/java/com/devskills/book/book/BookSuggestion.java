@@ -0,0 +1,8 @@
+package com.devskills.book.book;
+
+public record BookSuggestion(
+		Integer id,
+		String title,
+		String authorName
+) {
+}
@@ -0,0 +1,444 @@
+package com.devskills.book.book;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookSuggestionIndex {
+
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private final BookRepository bookRepository;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Trie trie;
+	private List<BookSuggestionSource> pendingSources;
+
+	@Value("${application.book.suggest.max-results}")
+	private int maxResults;
+
+	@Transactional(readOnly = true)
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(cron = "${application.book.suggest.rebuild-cron}")
+	public synchronized void build() {
+		long start = System.nanoTime();
+		lock.writeLock().lock();
+		try {
+			pendingSources = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		Trie rebuilt = new Trie(maxResults);
+		try (Stream<BookSuggestionSource> sources = bookRepository.streamSuggestionSources()) {
+			sources.forEach(rebuilt::index);
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			try {
+				pendingSources = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			throw e;
+		}
+		lock.writeLock().lock();
+		try {
+			pendingSources.forEach(rebuilt::index);
+			pendingSources = null;
+			trie = rebuilt;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info(
+				"Suggestion index built for {} books with {} nodes in {} ms",
+				rebuilt.books.size(),
+				rebuilt.nodeCount,
+				(System.nanoTime() - start) / 1_000_000
+		);
+	}
+
+	public void index(Book book) {
+		BookSuggestionSource source = new BookSuggestionSource(
+				book.getId(),
+				book.getTitle(),
+				book.getAuthorName(),
+				book.getOwner() == null ? null : book.getOwner().getId(),
+				book.isArchived(),
+				book.isShareable(),
+				book.getRate()
+		);
+		lock.writeLock().lock();
+		try {
+			if (pendingSources != null) {
+				pendingSources.add(source);
+			}
+			if (trie != null) {
+				trie.index(source);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public List<BookSuggestion> suggest(String prefix, int limit, Integer userId) {
+		String normalizedPrefix = normalize(prefix);
+		if (normalizedPrefix.isEmpty()) {
+			return List.of();
+		}
+		int maxSuggestions = Math.min(Math.max(limit, 1), maxResults);
+		lock.readLock().lock();
+		try {
+			if (trie == null) {
+				return List.of();
+			}
+			return trie.suggest(normalizedPrefix, maxSuggestions, userId)
+					.stream()
+					.map(trie.books::get)
+					.map(book -> new BookSuggestion(book.id(), book.title(), book.authorName()))
+					.toList();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static String normalize(String value) {
+		if (value == null) {
+			return "";
+		}
+		String decomposed = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+		return SEPARATORS.matcher(decomposed.toLowerCase()).replaceAll(" ").strip();
+	}
+
+	private static final class Trie {
+
+		private final int topSize;
+		private final Map<Integer, BookSuggestionSource> books = new HashMap<>();
+		private final Comparator<Integer> byRank = Comparator
+				.comparingDouble((Integer bookId) -> books.get(bookId).rate())
+				.thenComparingInt(bookId -> bookId)
+				.reversed();
+		private final Node root = new Node("", 0, 0, 0);
+		private int nodeCount = 1;
+
+		private Trie(int topSize) {
+			this.topSize = Math.max(topSize, 1);
+		}
+
+		private void index(BookSuggestionSource book) {
+			remove(book.id());
+			if (!book.archived() && book.shareable()) {
+				insert(book);
+			}
+		}
+
+		private List<Integer> suggest(String prefix, int maxSuggestions, Integer userId) {
+			Node node = root;
+			int position = 0;
+			while (position < prefix.length()) {
+				Node child = node.child(prefix.charAt(position));
+				if (child == null) {
+					return List.of();
+				}
+				int common = child.commonPrefix(prefix, position);
+				if (position + common < prefix.length() && common < child.length()) {
+					return List.of();
+				}
+				position += common;
+				node = child;
+			}
+			List<Integer> bookIds = new ArrayList<>(maxSuggestions);
+			for (int bookId : node.top) {
+				if (!Objects.equals(books.get(bookId).ownerId(), userId)) {
+					bookIds.add(bookId);
+					if (bookIds.size() == maxSuggestions) {
+						return bookIds;
+					}
+				}
+			}
+			if (!node.truncated) {
+				return bookIds;
+			}
+			Set<Integer> subtree = new LinkedHashSet<>();
+			collect(node, subtree);
+			return subtree.stream()
+					.filter(bookId -> !Objects.equals(books.get(bookId).ownerId(), userId))
+					.sorted(byRank)
+					.limit(maxSuggestions)
+					.toList();
+		}
+
+		private void collect(Node node, Set<Integer> bookIds) {
+			for (int bookId : node.bookIds) {
+				bookIds.add(bookId);
+			}
+			for (Node child : node.children) {
+				collect(child, bookIds);
+			}
+		}
+
+		private void insert(BookSuggestionSource book) {
+			books.put(book.id(), book);
+			for (String value : values(book)) {
+				forEachWordStart(value, start -> insertTerm(value, start, book.id()));
+			}
+		}
+
+		private void insertTerm(String text, int start, int bookId) {
+			Node node = root;
+			int position = start;
+			while (position < text.length()) {
+				char key = text.charAt(position);
+				Node child = node.child(key);
+				if (child == null) {
+					child = new Node(text, position, text.length(), node.depth + text.length() - position);
+					node.putChild(key, child);
+					nodeCount++;
+				} else {
+					int common = child.commonPrefix(text, position);
+					if (common < child.length()) {
+						child = split(node, child, common);
+					}
+				}
+				child.offer(bookId, topSize, byRank);
+				position += child.length();
+				node = child;
+			}
+			node.addBookId(bookId);
+		}
+
+		private Node split(Node parent, Node child, int common) {
+			Node middle = new Node(child.text, child.start, child.start + common, parent.depth + common);
+			middle.top = child.top;
+			middle.truncated = child.truncated;
+			child.start += common;
+			middle.putChild(child.firstChar(), child);
+			parent.putChild(middle.firstChar(), middle);
+			nodeCount++;
+			return middle;
+		}
+
+		private void remove(Integer bookId) {
+			BookSuggestionSource book = books.get(bookId);
+			if (book == null) {
+				return;
+			}
+			List<Node> path = new ArrayList<>();
+			for (String value : values(book)) {
+				forEachWordStart(value, start -> {
+					Node node = root;
+					int position = start;
+					while (position < value.length() && node != null) {
+						node = node.child(value.charAt(position));
+						if (node != null) {
+							path.add(node);
+							position += node.length();
+						}
+					}
+					if (node != null) {
+						node.removeBookId(bookId);
+					}
+				});
+			}
+			path.sort(Comparator.comparingInt((Node node) -> node.depth).reversed());
+			for (Node node : path) {
+				if (node.dropFromTop(bookId) && node.truncated) {
+					node.recomputeTop(topSize, byRank);
+				}
+			}
+			books.remove(bookId);
+		}
+
+		private static Set<String> values(BookSuggestionSource book) {
+			Set<String> values = new LinkedHashSet<>();
+			String title = normalize(book.title());
+			String authorName = normalize(book.authorName());
+			if (!title.isEmpty()) {
+				values.add(title);
+			}
+			if (!authorName.isEmpty()) {
+				values.add(authorName);
+			}
+			return values;
+		}
+
+		private static void forEachWordStart(String value, IntConsumer consumer) {
+			consumer.accept(0);
+			int separatorIndex = value.indexOf(' ');
+			while (separatorIndex >= 0) {
+				consumer.accept(separatorIndex + 1);
+				separatorIndex = value.indexOf(' ', separatorIndex + 1);
+			}
+		}
+	}
+
+	private static final class Node {
+
+		private static final char[] NO_KEYS = {};
+		private static final Node[] NO_CHILDREN = {};
+		private static final int[] NO_BOOK_IDS = {};
+
+		private final String text;
+		private int start;
+		private final int end;
+		private final int depth;
+		private char[] keys = NO_KEYS;
+		private Node[] children = NO_CHILDREN;
+		private int[] bookIds = NO_BOOK_IDS;
+		private int[] top = NO_BOOK_IDS;
+		private boolean truncated;
+
+		private Node(String text, int start, int end, int depth) {
+			this.text = text;
+			this.start = start;
+			this.end = end;
+			this.depth = depth;
+		}
+
+		private int length() {
+			return end - start;
+		}
+
+		private char firstChar() {
+			return text.charAt(start);
+		}
+
+		private int commonPrefix(String value, int from) {
+			int common = 0;
+			int length = length();
+			while (common < length && from + common < value.length() && text.charAt(start + common) == value.charAt(from + common)) {
+				common++;
+			}
+			return common;
+		}
+
+		private Node child(char key) {
+			int index = Arrays.binarySearch(keys, key);
+			return index >= 0 ? children[index] : null;
+		}
+
+		private void putChild(char key, Node child) {
+			int index = Arrays.binarySearch(keys, key);
+			if (index >= 0) {
+				children[index] = child;
+				return;
+			}
+			index = -index - 1;
+			char[] newKeys = new char[keys.length + 1];
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(keys, 0, newKeys, 0, index);
+			System.arraycopy(children, 0, newChildren, 0, index);
+			newKeys[index] = key;
+			newChildren[index] = child;
+			System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+			System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+			keys = newKeys;
+			children = newChildren;
+		}
+
+		private void addBookId(int bookId) {
+			bookIds = add(bookIds, bookId);
+		}
+
+		private void removeBookId(int bookId) {
+			bookIds = remove(bookIds, bookId);
+		}
+
+		private void offer(int bookId, int topSize, Comparator<Integer> byRank) {
+			for (int existing : top) {
+				if (existing == bookId) {
+					return;
+				}
+			}
+			int index = 0;
+			while (index < top.length && byRank.compare(top[index], bookId) < 0) {
+				index++;
+			}
+			if (index == topSize) {
+				truncated = true;
+				return;
+			}
+			int length = Math.min(top.length + 1, topSize);
+			int[] newTop = new int[length];
+			System.arraycopy(top, 0, newTop, 0, index);
+			newTop[index] = bookId;
+			System.arraycopy(top, index, newTop, index + 1, length - index - 1);
+			truncated |= top.length + 1 > topSize;
+			top = newTop;
+		}
+
+		private boolean dropFromTop(int bookId) {
+			int[] newTop = remove(top, bookId);
+			boolean dropped = newTop.length < top.length;
+			top = newTop;
+			return dropped;
+		}
+
+		private void recomputeTop(int topSize, Comparator<Integer> byRank) {
+			Set<Integer> candidates = new LinkedHashSet<>();
+			boolean childTruncated = false;
+			for (int bookId : bookIds) {
+				candidates.add(bookId);
+			}
+			for (Node child : children) {
+				for (int bookId : child.top) {
+					candidates.add(bookId);
+				}
+				childTruncated |= child.truncated;
+			}
+			truncated = childTruncated || candidates.size() > topSize;
+			top = candidates.stream()
+					.sorted(byRank)
+					.limit(topSize)
+					.mapToInt(Integer::intValue)
+					.toArray();
+		}
+
+		private static int[] add(int[] values, int value) {
+			for (int existing : values) {
+				if (existing == value) {
+					return values;
+				}
+			}
+			int[] newValues = Arrays.copyOf(values, values.length + 1);
+			newValues[values.length] = value;
+			return newValues;
+		}
+
+		private static int[] remove(int[] values, int value) {
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] == value) {
+					int[] newValues = new int[values.length - 1];
+					System.arraycopy(values, 0, newValues, 0, i);
+					System.arraycopy(values, i + 1, newValues, i, values.length - i - 1);
+					return newValues;
+				}
+			}
+			return values;
+		}
+	}
+
+}
@@ -0,0 +1,12 @@
+package com.devskills.book.book;
+
+public record BookSuggestionSource(
+		Integer id,
+		String title,
+		String authorName,
+		Integer ownerId,
+		boolean archived,
+		boolean shareable,
+		double rate
+) {
+}
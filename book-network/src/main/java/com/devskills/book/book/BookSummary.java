@@ -0,0 +1,19 @@
+package com.devskills.book.book;
+
+import java.time.LocalDateTime;
+
+public record BookSummary(
+		Integer id,
+		String title,
+		String authorName,
+		String isbn,
+		String synopsis,
+		String owner,
+		double rate,
+		boolean archived,
+		boolean shareable,
+		String bookCover,
+		LocalDateTime createdDate
+) {
+
+}
@@ -0,0 +1,9 @@
+package com.devskills.book.book;
+
+public enum CoverMode {
+	
+	EMBEDDED,
+	
+	URL
+
+}
@@ -0,0 +1,52 @@
+package com.devskills.book.common;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Component
+public class ApproximateCounter {
+	
+	private final Cache<String, Long> counts;
+	
+	public ApproximateCounter(
+			@Value("${application.pagination.approximate-count.refresh-interval}") Duration refreshInterval,
+			@Value("${application.pagination.approximate-count.max-entries}") long maxEntries
+	) {
+		this.counts = Caffeine.newBuilder()
+				.expireAfterWrite(refreshInterval)
+				.maximumSize(maxEntries)
+				.build();
+	}
+	
+	public Long count(CountMode countMode, String key, Supplier<Long> counter) {
+		if (countMode != CountMode.APPROXIMATE) {
+			return null;
+		}
+		return counts.get(key, k -> counter.get());
+	}
+	
+	public <T, R> SliceResponse<R> toSliceResponse(Slice<T> slice, Function<T, R> mapper, CountMode countMode, String key, Supplier<Long> counter) {
+		List<R> content = slice.stream()
+				.map(mapper)
+				.toList();
+		return new SliceResponse<>(
+				content,
+				slice.getNumber(),
+				slice.getSize(),
+				slice.isFirst(),
+				slice.isLast(),
+				slice.hasNext(),
+				count(countMode, key, counter)
+		);
+	}
+
+}
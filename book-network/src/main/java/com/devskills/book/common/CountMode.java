@@ -0,0 +1,6 @@
+package com.devskills.book.common;
+
+public enum CountMode {
+	NONE,
+	APPROXIMATE
+}
@@ -0,0 +1,38 @@
+package com.devskills.book.common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.devskills.book.exception.OperationNotPermittedException;
+
+public record Cursor(
+		LocalDateTime createdDate,
+		Integer id
+) {
+	
+	private static final Cursor FIRST = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59), Integer.MAX_VALUE);
+	
+	public String encode() {
+		String value = createdDate + "|" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static Cursor decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return FIRST;
+		}
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separatorIndex = value.indexOf('|');
+			return new Cursor(
+					LocalDateTime.parse(value.substring(0, separatorIndex)),
+					Integer.valueOf(value.substring(separatorIndex + 1))
+			);
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw new OperationNotPermittedException("The cursor is not valid");
+		}
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.devskills.book.common;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+	
+	private List<T> content;
+	private int size;
+	private String nextCursor;
+	private boolean hasNext;
+
+}
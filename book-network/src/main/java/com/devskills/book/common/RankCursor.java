@@ -0,0 +1,34 @@
+package com.devskills.book.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.devskills.book.exception.OperationNotPermittedException;
+
+public record RankCursor(
+		float rank,
+		Integer id
+) {
+	
+	public String encode() {
+		String value = Float.floatToIntBits(rank) + "|" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static RankCursor decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separatorIndex = value.indexOf('|');
+			return new RankCursor(
+					Float.intBitsToFloat(Integer.parseInt(value.substring(0, separatorIndex))),
+					Integer.valueOf(value.substring(separatorIndex + 1))
+			);
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new OperationNotPermittedException("The cursor is not valid");
+		}
+	}
+
+}
@@ -0,0 +1,26 @@
+package com.devskills.book.common;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SliceResponse<T> {
+	
+	private List<T> content;
+	private int number;
+	private int size;
+	private boolean first;
+	private boolean last;
+	private boolean hasNext;
+	private Long approximateTotalElements;
+
+}
@@ -1,8 +1,10 @@
 package com.devskills.book.config;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
@@ -11,13 +13,15 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import com.devskills.book.security.BoundedPasswordEncoder;
+
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -25,12 +29,14 @@ import lombok.RequiredArgsConstructor;
 public class BeansConfig {
 	
 	private final UserDetailsService userDetailsService;
+	private final UserDetailsPasswordService userDetailsPasswordService;
 
 	@Bean
-	AuthenticationProvider authenticationProvider() {
+	AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
 		DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
 		authProvider.setUserDetailsService(userDetailsService);
-		authProvider.setPasswordEncoder(passwordEncoder());
+		authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+		authProvider.setPasswordEncoder(passwordEncoder);
 		return authProvider;
 	}
 	
@@ -47,8 +53,13 @@ public class BeansConfig {
 	}
 
 	@Bean
-	PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	PasswordEncoder passwordEncoder(
+			@Value("${application.security.password-hashing.strength}") int strength,
+			@Value("${application.security.password-hashing.pool-size}") int poolSize,
+			@Value("${application.security.password-hashing.queue-capacity}") int queueCapacity,
+			@Value("${application.security.password-hashing.timeout}") Duration timeout
+	) {
+		return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, timeout);
 	}
 	
 	@Bean
@@ -0,0 +1,65 @@
+package com.devskills.book.config;
+
+import java.util.List;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+public class SearchFunctionContributor implements FunctionContributor {
+
+	private static final String SEARCH_VECTOR_COLUMN = "search_vector";
+
+	@Override
+	public void contributeFunctions(FunctionContributions functionContributions) {
+		BasicTypeRegistry basicTypeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+		functionContributions.getFunctionRegistry().register(
+				"fts_match",
+				new SearchVectorFunction("fts_match", "(", " @@ websearch_to_tsquery('english', ", "))", basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN))
+		);
+		functionContributions.getFunctionRegistry().register(
+				"fts_rank",
+				new SearchVectorFunction("fts_rank", "ts_rank(", ", websearch_to_tsquery('english', ", "))", basicTypeRegistry.resolve(StandardBasicTypes.FLOAT))
+		);
+	}
+
+	private static final class SearchVectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+
+		private final String prefix;
+		private final String separator;
+		private final String suffix;
+
+		private SearchVectorFunction(String name, String prefix, String separator, String suffix, BasicType<?> returnType) {
+			super(name, StandardArgumentsValidators.exactly(2), StandardFunctionReturnTypeResolvers.invariant(returnType), null);
+			this.prefix = prefix;
+			this.separator = separator;
+			this.suffix = suffix;
+		}
+
+		@Override
+		public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> sqlAstArguments, ReturnableType<?> returnType, SqlAstTranslator<?> walker) {
+			ColumnReference idColumn = ((Expression) sqlAstArguments.get(0)).getColumnReference();
+			sqlAppender.appendSql(prefix);
+			if (idColumn != null && idColumn.getQualifier() != null) {
+				sqlAppender.appendSql(idColumn.getQualifier());
+				sqlAppender.appendSql('.');
+			}
+			sqlAppender.appendSql(SEARCH_VECTOR_COLUMN);
+			sqlAppender.appendSql(separator);
+			sqlAstArguments.get(1).accept(walker);
+			sqlAppender.appendSql(suffix);
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.devskills.book.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+@Configuration
+public class SecondLevelCacheConfig {
+	
+	public static final List<String> ENTITY_REGIONS = List.of("book", "user", "user-roles", "role");
+	
+	@Bean(destroyMethod = "close")
+	CacheManager hibernateCacheManager(
+			@Value("${application.cache.second-level.max-entries}") long maxEntries,
+			@Value("${application.cache.second-level.expire-after-write}") Duration expireAfterWrite
+	) {
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+		CaffeineConfiguration<Object, Object> regionConfiguration = new CaffeineConfiguration<>();
+		regionConfiguration.setMaximumSize(OptionalLong.of(maxEntries));
+		regionConfiguration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+		for (String region : ENTITY_REGIONS) {
+			createIfMissing(cacheManager, region, regionConfiguration);
+		}
+		createIfMissing(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, regionConfiguration);
+		createIfMissing(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+		return cacheManager;
+	}
+	
+	@Bean
+	HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+	
+	private void createIfMissing(CacheManager cacheManager, String region, CaffeineConfiguration<Object, Object> configuration) {
+		if (cacheManager.getCache(region) == null) {
+			cacheManager.createCache(region, configuration);
+		}
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.devskills.book.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SecondLevelCacheStats {
+	
+	private final EntityManagerFactory entityManagerFactory;
+	
+	public CacheRegionStatistics regionStatistics(String region) {
+		return statistics().getDomainDataRegionStatistics(region);
+	}
+	
+	@Scheduled(fixedRateString = "${application.cache.second-level.stats-log-interval}")
+	public void logStats() {
+		for (String region : SecondLevelCacheConfig.ENTITY_REGIONS) {
+			CacheRegionStatistics stats = regionStatistics(region);
+			log.info(
+					"Second-level cache region {}: {} hits, {} misses, {} puts, {} entries",
+					region,
+					stats.getHitCount(),
+					stats.getMissCount(),
+					stats.getPutCount(),
+					stats.getElementCountInMemory()
+			);
+		}
+		Statistics statistics = statistics();
+		log.info(
+				"Query cache: {} hits, {} misses, {} puts",
+				statistics.getQueryCacheHitCount(),
+				statistics.getQueryCacheMissCount(),
+				statistics.getQueryCachePutCount()
+		);
+	}
+	
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.devskills.book.cover;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import com.devskills.book.common.BaseEntity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(indexes = @Index(columnList = "status, claimed_at"))
+public class CoverJob extends BaseEntity {
+	
+	private Integer bookId;
+	
+	private Integer userId;
+	
+	private String spooledFile;
+	
+	private String contentHash;
+	
+	@Enumerated(EnumType.STRING)
+	private CoverJobStatus status;
+	
+	private LocalDateTime claimedAt;
+	
+	@ColumnDefault("0")
+	private int attempts;
+	
+	private LocalDateTime nextAttemptAt;
+	
+	private String errorMessage;
+
+}
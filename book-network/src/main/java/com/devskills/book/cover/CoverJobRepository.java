@@ -0,0 +1,42 @@
+package com.devskills.book.cover;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface CoverJobRepository extends JpaRepository<CoverJob, Integer> {
+
+	@Query("""
+			SELECT job.id
+			FROM CoverJob job
+			WHERE job.status = com.devskills.book.cover.CoverJobStatus.PENDING
+			AND (job.nextAttemptAt IS NULL OR job.nextAttemptAt <= :now)
+			ORDER BY job.createdDate
+			""")
+	List<Integer> findPendingJobIds(LocalDateTime now, Pageable pageable);
+
+	@Modifying
+	@Query("""
+			UPDATE CoverJob job
+			SET job.status = com.devskills.book.cover.CoverJobStatus.PROCESSING,
+			job.claimedAt = :claimedAt
+			WHERE job.id = :jobId
+			AND job.status = com.devskills.book.cover.CoverJobStatus.PENDING
+			""")
+	int claim(Integer jobId, LocalDateTime claimedAt);
+
+	@Modifying
+	@Query("""
+			UPDATE CoverJob job
+			SET job.status = com.devskills.book.cover.CoverJobStatus.PENDING,
+			job.claimedAt = null
+			WHERE job.status = com.devskills.book.cover.CoverJobStatus.PROCESSING
+			AND job.claimedAt < :claimedBefore
+			""")
+	int releaseStaleJobs(LocalDateTime claimedBefore);
+
+}
@@ -0,0 +1,21 @@
+package com.devskills.book.cover;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CoverJobResponse {
+	
+	private Integer id;
+	private Integer bookId;
+	private CoverJobStatus status;
+	private String errorMessage;
+
+}
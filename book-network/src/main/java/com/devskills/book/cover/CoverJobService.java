@@ -0,0 +1,150 @@
+package com.devskills.book.cover;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.devskills.book.book.Book;
+import com.devskills.book.book.BookCatalogSnapshot;
+import com.devskills.book.book.BookRepository;
+import com.devskills.book.exception.OperationNotPermittedException;
+import com.devskills.book.file.CoverSize;
+import com.devskills.book.file.FileCache;
+import com.devskills.book.file.FileStorageService;
+import com.devskills.book.file.SpooledFile;
+import com.devskills.book.user.User;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class CoverJobService {
+	
+	private final CoverJobRepository coverJobRepository;
+	private final BookRepository bookRepository;
+	private final FileStorageService fileStorageService;
+	private final FileCache fileCache;
+	private final BookCatalogSnapshot catalogSnapshot;
+	
+	@Value("${application.cover-jobs.max-attempts}")
+	private int maxAttempts;
+	
+	@Value("${application.cover-jobs.retry-backoff}")
+	private Duration retryBackoff;
+	
+	public Integer enqueue(MultipartFile file, Integer bookId, Integer userId) {
+		SpooledFile spooledFile = fileStorageService.spoolFile(file);
+		if (spooledFile == null) {
+			throw new IllegalStateException("The cover could not be spooled");
+		}
+		CoverJob job = CoverJob.builder()
+				.bookId(bookId)
+				.userId(userId)
+				.spooledFile(spooledFile.path())
+				.contentHash(spooledFile.contentHash())
+				.status(CoverJobStatus.PENDING)
+				.build();
+		return coverJobRepository.save(job).getId();
+	}
+
+	public CoverJobResponse findById(Integer jobId, Authentication connectedUser) {
+		CoverJob job = findJob(jobId);
+		User user = (User) connectedUser.getPrincipal();
+		if (!Objects.equals(job.getUserId(), user.getId())) {
+			throw new OperationNotPermittedException("You cannot see the cover jobs of other users");
+		}
+		return CoverJobResponse.builder()
+				.id(job.getId())
+				.bookId(job.getBookId())
+				.status(job.getStatus())
+				.errorMessage(job.getErrorMessage())
+				.build();
+	}
+
+	public List<Integer> findPendingJobIds(int limit) {
+		return coverJobRepository.findPendingJobIds(LocalDateTime.now(), PageRequest.of(0, limit));
+	}
+
+	@Transactional
+	public boolean claim(Integer jobId) {
+		return coverJobRepository.claim(jobId, LocalDateTime.now()) == 1;
+	}
+
+	@Transactional
+	public int releaseStaleJobs(LocalDateTime claimedBefore) {
+		return coverJobRepository.releaseStaleJobs(claimedBefore);
+	}
+
+	public CoverJob findJob(Integer jobId) {
+		return coverJobRepository.findById(jobId)
+				.orElseThrow(() -> new EntityNotFoundException("No cover job found with the ID::" + jobId));
+	}
+
+	@Transactional
+	public void complete(Integer jobId, String bookCover) {
+		CoverJob job = findJob(jobId);
+		Book book = bookRepository.findById(job.getBookId())
+				.orElseThrow(() -> new EntityNotFoundException("No book found with the ID::" + job.getBookId()));
+		String previousCover = book.getBookCover();
+		book.setBookCover(bookCover);
+		Book savedBook = bookRepository.save(book);
+		afterCommit(() -> catalogSnapshot.index(savedBook));
+		fileStorageService.retain(bookCover);
+		fileStorageService.release(previousCover);
+		job.setStatus(CoverJobStatus.COMPLETED);
+		coverJobRepository.save(job);
+		for (CoverSize coverSize : CoverSize.values()) {
+			fileCache.invalidate(coverSize.resolve(previousCover));
+		}
+	}
+
+	@Transactional
+	public boolean retryOrFail(Integer jobId, String errorMessage) {
+		CoverJob job = findJob(jobId);
+		job.setAttempts(job.getAttempts() + 1);
+		job.setErrorMessage(errorMessage);
+		job.setClaimedAt(null);
+		boolean exhausted = job.getAttempts() >= maxAttempts;
+		if (exhausted) {
+			job.setStatus(CoverJobStatus.FAILED);
+		} else {
+			job.setStatus(CoverJobStatus.PENDING);
+			job.setNextAttemptAt(LocalDateTime.now().plus(retryBackoff.multipliedBy(1L << Math.min(job.getAttempts() - 1, 10))));
+		}
+		coverJobRepository.save(job);
+		return exhausted;
+	}
+
+	@Transactional
+	public void fail(Integer jobId, String errorMessage) {
+		CoverJob job = findJob(jobId);
+		job.setStatus(CoverJobStatus.FAILED);
+		job.setErrorMessage(errorMessage);
+		coverJobRepository.save(job);
+	}
+
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.devskills.book.cover;
+
+public enum CoverJobStatus {
+	
+	PENDING,
+	
+	PROCESSING,
+	
+	COMPLETED,
+	
+	FAILED
+
+}
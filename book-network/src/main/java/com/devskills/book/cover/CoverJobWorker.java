@@ -0,0 +1,95 @@
+package com.devskills.book.cover;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.devskills.book.file.FileStorageService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class CoverJobWorker {
+	
+	private final CoverJobService coverJobService;
+	private final FileStorageService fileStorageService;
+	private final ThreadPoolExecutor executor;
+	private final Duration staleAfter;
+	
+	public CoverJobWorker(
+			CoverJobService coverJobService,
+			FileStorageService fileStorageService,
+			@Value("${application.cover-jobs.pool-size}") int poolSize,
+			@Value("${application.cover-jobs.queue-capacity}") int queueCapacity,
+			@Value("${application.cover-jobs.stale-after}") Duration staleAfter
+	) {
+		this.coverJobService = coverJobService;
+		this.fileStorageService = fileStorageService;
+		this.staleAfter = staleAfter;
+		this.executor = new ThreadPoolExecutor(
+				poolSize,
+				poolSize,
+				0L,
+				TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				new CustomizableThreadFactory("cover-job-")
+		);
+	}
+	
+	@Scheduled(fixedDelayString = "${application.cover-jobs.poll-interval}")
+	public void poll() {
+		int released = coverJobService.releaseStaleJobs(LocalDateTime.now().minus(staleAfter));
+		if (released > 0) {
+			log.warn("{} stale cover jobs were released", released);
+		}
+		int capacity = executor.getQueue().remainingCapacity();
+		if (capacity == 0) {
+			return;
+		}
+		for (Integer jobId : coverJobService.findPendingJobIds(capacity)) {
+			if (!coverJobService.claim(jobId)) {
+				continue;
+			}
+			try {
+				executor.execute(() -> process(jobId));
+			} catch (RejectedExecutionException e) {
+				log.warn("Cover job {} was rejected and will be retried once stale", jobId);
+			}
+		}
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private void process(Integer jobId) {
+		CoverJob job = null;
+		try {
+			job = coverJobService.findJob(jobId);
+			String bookCover = fileStorageService.saveFile(job.getSpooledFile(), job.getContentHash());
+			if (bookCover == null) {
+				coverJobService.fail(jobId, "The cover is not a valid image");
+				return;
+			}
+			coverJobService.complete(jobId, bookCover);
+		} catch (IOException | RuntimeException e) {
+			log.warn("Cover job {} failed", jobId, e);
+			if (coverJobService.retryOrFail(jobId, e.getMessage()) && job != null) {
+				fileStorageService.deleteSpooledFile(job.getSpooledFile());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.devskills.book.exception;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PasswordHashingUnavailableException(String msg) {
+		super(msg);
+	}
+	
+	public PasswordHashingUnavailableException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.devskills.book.exception;
+
+import java.time.Duration;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+	
+	private final Duration retryAfter;
+
+	public TooManyLoginAttemptsException(String msg, Duration retryAfter) {
+		super(msg);
+		this.retryAfter = retryAfter;
+	}
+
+}
@@ -10,7 +10,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.devskills.book.common.CountMode;
 import com.devskills.book.common.PageResponse;
+import com.devskills.book.common.SliceResponse;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -41,5 +43,16 @@ public class FeedbackController {
 	) {
 		return ResponseEntity.ok(service.findAllFeedbacksByBook(bookId, page, size, connectedUser));
 	}
+	
+	@GetMapping(value = "/book/{book-id}", params = "count")
+	public ResponseEntity<SliceResponse<FeedbackResponse>> findAllFeedbacksByBookWithoutCount(
+			@PathVariable("book-id") Integer bookId,
+			@RequestParam(name = "page", defaultValue = "0", required = false) int page,
+			@RequestParam(name = "size", defaultValue = "10", required = false) int size,
+			@RequestParam(name = "count") CountMode countMode,
+			Authentication connectedUser
+	) {
+		return ResponseEntity.ok(service.findAllFeedbacksByBook(bookId, page, size, countMode, connectedUser));
+	}
 
 }
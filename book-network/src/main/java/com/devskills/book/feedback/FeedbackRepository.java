@@ -2,6 +2,7 @@ package com.devskills.book.feedback;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -14,4 +15,18 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Integer> {
 			""")
 	Page<Feedback> findAllByBookId(Integer bookId, Pageable pageable);
 
+	@Query("""
+			SELECT feedback
+			FROM Feedback feedback
+			WHERE feedback.book.id = :bookId
+			""")
+	Slice<Feedback> findSliceByBookId(Integer bookId, Pageable pageable);
+
+	@Query("""
+			SELECT COUNT(feedback)
+			FROM Feedback feedback
+			WHERE feedback.book.id = :bookId
+			""")
+	long countByBookId(Integer bookId);
+
 }
@@ -6,12 +6,22 @@ import java.util.Objects;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.devskills.book.book.Book;
+import com.devskills.book.book.BookCatalogSnapshot;
+import com.devskills.book.book.BookFacetIndex;
 import com.devskills.book.book.BookRepository;
+import com.devskills.book.book.BookSuggestionIndex;
+import com.devskills.book.common.ApproximateCounter;
+import com.devskills.book.common.CountMode;
 import com.devskills.book.common.PageResponse;
+import com.devskills.book.common.SliceResponse;
 import com.devskills.book.exception.OperationNotPermittedException;
 import com.devskills.book.user.User;
 
@@ -26,9 +36,14 @@ public class FeedbackService {
 	private final BookRepository bookRepository;
 	private final FeedbackMapper feedbackMapper;
 	private final FeedbackRepository feedbackRepository;
+	private final ApproximateCounter approximateCounter;
+	private final BookSuggestionIndex bookSuggestionIndex;
+	private final BookFacetIndex bookFacetIndex;
+	private final BookCatalogSnapshot catalogSnapshot;
 	
+	@Transactional
 	public Integer save(@Valid FeedbackRequest request, Authentication connectedUser) {
-		Book book = bookRepository.findById(request.bookId())
+		Book book = bookRepository.findByIdForUpdate(request.bookId())
 				.orElseThrow(() -> new EntityNotFoundException("No book found with the ID::" + request.bookId()));
 		
 		if (book.isArchived() || !book.isShareable()) {
@@ -39,7 +54,31 @@ public class FeedbackService {
 			throw new OperationNotPermittedException("You cannot give a feedback to your own book");
 		}
 		Feedback feedback = feedbackMapper.toFeedback(request);
-		return feedbackRepository.save(feedback).getId();
+		Integer feedbackId = feedbackRepository.save(feedback).getId();
+		if (feedback.getNote() != null) {
+			book.addRate(feedback.getNote());
+			Integer bookId = book.getId();
+			double rate = book.getRate();
+			afterCommit(() -> {
+				bookSuggestionIndex.index(book);
+				bookFacetIndex.updateRate(bookId, rate);
+				catalogSnapshot.updateRate(bookId, rate);
+			});
+		}
+		return feedbackId;
+	}
+	
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
 	}
 
 	public PageResponse<FeedbackResponse> findAllFeedbacksByBook(Integer bookId, int page, int size, Authentication connectedUser) {
@@ -60,4 +99,17 @@ public class FeedbackService {
 		);
 	}
 
+	public SliceResponse<FeedbackResponse> findAllFeedbacksByBook(Integer bookId, int page, int size, CountMode countMode, Authentication connectedUser) {
+		Pageable pageable = PageRequest.of(page, size);
+		User user = (User) connectedUser.getPrincipal();
+		Slice<Feedback> feedbacks = feedbackRepository.findSliceByBookId(bookId, pageable);
+		return approximateCounter.toSliceResponse(
+				feedbacks,
+				f -> feedbackMapper.toFeedbackResponse(f, user.getId()),
+				countMode,
+				"feedbacks.book." + bookId,
+				() -> feedbackRepository.countByBookId(bookId)
+		);
+	}
+
 }
@@ -0,0 +1,22 @@
+package com.devskills.book.file;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.core.io.Resource;
+
+public interface BlobStorage {
+	
+	void store(String key, Path source) throws IOException;
+	
+	void fetch(String key, Path target) throws IOException;
+	
+	Resource load(String key);
+	
+	byte[] read(String key);
+	
+	boolean exists(String key);
+	
+	void delete(String key);
+
+}
@@ -0,0 +1,72 @@
+package com.devskills.book.file;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.springframework.core.io.AbstractResource;
+
+public class ByteBufferResource extends AbstractResource {
+	
+	private final ByteBuffer content;
+	private final String filename;
+	private final long lastModified;
+
+	public ByteBufferResource(ByteBuffer content, String filename, long lastModified) {
+		this.content = content.asReadOnlyBuffer();
+		this.filename = filename;
+		this.lastModified = lastModified;
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		ByteBuffer buffer = content.duplicate();
+		return new InputStream() {
+			
+			@Override
+			public int read() {
+				return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+			}
+			
+			@Override
+			public int read(byte[] bytes, int offset, int length) {
+				if (!buffer.hasRemaining()) {
+					return -1;
+				}
+				int count = Math.min(length, buffer.remaining());
+				buffer.get(bytes, offset, count);
+				return count;
+			}
+			
+			@Override
+			public int available() {
+				return buffer.remaining();
+			}
+		};
+	}
+
+	@Override
+	public boolean isReadable() {
+		return true;
+	}
+
+	@Override
+	public long contentLength() {
+		return content.remaining();
+	}
+
+	@Override
+	public long lastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public String getFilename() {
+		return filename;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Byte buffer resource [" + filename + "]";
+	}
+
+}
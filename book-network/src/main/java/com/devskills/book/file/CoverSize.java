@@ -0,0 +1,44 @@
+package com.devskills.book.file;
+
+import lombok.Getter;
+
+public enum CoverSize {
+	
+	THUMBNAIL(160, "-thumbnail.jpg"),
+	
+	MEDIUM(480, "-medium.jpg"),
+	
+	ORIGINAL(0, "")
+	;
+	
+	@Getter
+	private final int width;
+	
+	@Getter
+	private final String suffix;
+
+	CoverSize(int width, String suffix) {
+		this.width = width;
+		this.suffix = suffix;
+	}
+	
+	public String resolve(String originalPath) {
+		if (originalPath == null || this == ORIGINAL) {
+			return originalPath;
+		}
+		int lastDotIndex = originalPath.lastIndexOf(".");
+		int lastSeparatorIndex = Math.max(originalPath.lastIndexOf("/"), originalPath.lastIndexOf("\\"));
+		String basePath = lastDotIndex > lastSeparatorIndex ? originalPath.substring(0, lastDotIndex) : originalPath;
+		return basePath + suffix;
+	}
+	
+	public static boolean isVariant(String path) {
+		for (CoverSize size : values()) {
+			if (size != ORIGINAL && path.endsWith(size.suffix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
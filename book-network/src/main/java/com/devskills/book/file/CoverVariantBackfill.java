@@ -0,0 +1,66 @@
+package com.devskills.book.file;
+
+import static java.io.File.separator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CoverVariantBackfill {
+	
+	private final CoverVariantGenerator coverVariantGenerator;
+	
+	@Value("${application.file.upload.photos-output-path}")
+	private String fileUploadPath;
+	
+	@Value("${application.file.variants.backfill-on-startup}")
+	private boolean backfillOnStartup;
+	
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		if (!backfillOnStartup) {
+			return;
+		}
+		Path usersPath = Paths.get(fileUploadPath + separator + "users");
+		if (!Files.isDirectory(usersPath)) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(usersPath)) {
+			long generated = files
+					.filter(Files::isRegularFile)
+					.filter(path -> !path.toString().endsWith(".part"))
+					.filter(path -> !CoverSize.isVariant(path.toString()))
+					.filter(path -> !coverVariantGenerator.hasAllVariants(path))
+					.filter(this::generate)
+					.count();
+			log.info("Cover variants generated for {} files", generated);
+		} catch (IOException e) {
+			log.error("Cover variants backfill failed", e);
+		}
+	}
+	
+	private boolean generate(Path path) {
+		try {
+			return coverVariantGenerator.generate(path);
+		} catch (IOException e) {
+			log.error("Cover variants for {} were not generated", path, e);
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.devskills.book.file;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class CoverVariantGenerator {
+	
+	@Value("${application.file.upload.max-pixels}")
+	private long maxPixels;
+	
+	public boolean generate(Path originalPath) throws IOException {
+		BufferedImage original;
+		try {
+			original = read(originalPath);
+		} catch (IOException e) {
+			log.warn("Cover {} could not be read", originalPath);
+			return false;
+		}
+		if (original == null) {
+			return false;
+		}
+		for (CoverSize size : CoverSize.values()) {
+			if (size != CoverSize.ORIGINAL) {
+				try {
+					writeVariant(original, size, Paths.get(size.resolve(originalPath.toString())));
+				} catch (IOException e) {
+					deleteVariants(originalPath);
+					throw e;
+				}
+			}
+		}
+		return true;
+	}
+	
+	public boolean hasAllVariants(Path originalPath) {
+		for (CoverSize size : CoverSize.values()) {
+			if (size != CoverSize.ORIGINAL && !new File(size.resolve(originalPath.toString())).exists()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private BufferedImage read(Path originalPath) throws IOException {
+		try (ImageInputStream input = ImageIO.createImageInputStream(originalPath.toFile())) {
+			Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+			if (readers == null || !readers.hasNext()) {
+				log.warn("Cover {} is not a supported image", originalPath);
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(input, true, true);
+				long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+				if (pixels <= 0 || pixels > maxPixels) {
+					log.warn("Cover {} was rejected, {} pixels exceed the limit of {}", originalPath, pixels, maxPixels);
+					return null;
+				}
+				return reader.read(0);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	private void writeVariant(BufferedImage original, CoverSize size, Path variantPath) throws IOException {
+		int width = Math.min(size.getWidth(), original.getWidth());
+		int height = Math.max(1, Math.round((float) original.getHeight() * width / original.getWidth()));
+		BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(original, 0, 0, width, height, Color.WHITE, null);
+		} finally {
+			graphics.dispose();
+		}
+		Path tempPath = null;
+		try {
+			tempPath = Files.createTempFile(variantPath.getParent(), "variant-", ".part");
+			if (!ImageIO.write(scaled, "jpg", tempPath.toFile())) {
+				throw new IOException("Cover variant " + variantPath + " was not saved, no JPEG writer is available");
+			}
+			Files.move(tempPath, variantPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			if (tempPath != null) {
+				tempPath.toFile().delete();
+			}
+		}
+	}
+	
+	private void deleteVariants(Path originalPath) {
+		for (CoverSize size : CoverSize.values()) {
+			if (size != CoverSize.ORIGINAL) {
+				try {
+					Files.deleteIfExists(Paths.get(size.resolve(originalPath.toString())));
+				} catch (IOException e) {
+					log.warn("Cover variant {} was not deleted", size.resolve(originalPath.toString()));
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.devskills.book.file;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+public class FileBlob {
+	
+	@Id
+	private String contentHash;
+	
+	@Column(unique = true, nullable = false)
+	private String path;
+	
+	private long size;
+	
+	private long refCount;
+	
+	private LocalDateTime createdAt;
+	
+	private LocalDateTime releasedAt;
+
+}
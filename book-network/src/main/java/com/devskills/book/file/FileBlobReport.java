@@ -0,0 +1,9 @@
+package com.devskills.book.file;
+
+public record FileBlobReport(
+		long blobs,
+		long storedBytes,
+		long savedBytes
+) {
+
+}
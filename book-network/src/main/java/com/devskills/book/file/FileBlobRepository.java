@@ -0,0 +1,90 @@
+package com.devskills.book.file;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+	@Transactional
+	@Modifying
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "file_blob"))
+	@Query(value = """
+			INSERT INTO file_blob (content_hash, path, size, ref_count, created_at)
+			VALUES (:contentHash, :path, :size, 0, :createdAt)
+			ON CONFLICT (content_hash) DO NOTHING
+			""", nativeQuery = true)
+	int insertIfAbsent(String contentHash, String path, long size, LocalDateTime createdAt);
+
+	@Transactional
+	@Modifying
+	@Query("""
+			UPDATE FileBlob blob
+			SET blob.releasedAt = :touchedAt
+			WHERE blob.contentHash = :contentHash
+			""")
+	int touch(String contentHash, LocalDateTime touchedAt);
+
+	@Modifying
+	@Query("""
+			UPDATE FileBlob blob
+			SET blob.refCount = blob.refCount + 1
+			WHERE blob.path = :path
+			""")
+	int retain(String path);
+
+	@Modifying
+	@Query("""
+			UPDATE FileBlob blob
+			SET blob.refCount = blob.refCount - 1,
+			blob.releasedAt = :releasedAt
+			WHERE blob.path = :path
+			AND blob.refCount > 0
+			""")
+	int release(String path, LocalDateTime releasedAt);
+
+	@Modifying
+	@Query("""
+			UPDATE FileBlob blob
+			SET blob.path = SUBSTRING(blob.path, LENGTH(:prefix) + 1)
+			WHERE blob.path LIKE CONCAT(:prefix, '%')
+			""")
+	int stripPathPrefix(String prefix);
+
+	@Query("""
+			SELECT blob
+			FROM FileBlob blob
+			WHERE blob.refCount = 0
+			AND COALESCE(blob.releasedAt, blob.createdAt) < :unusedSince
+			""")
+	List<FileBlob> findUnreferencedBlobs(LocalDateTime unusedSince);
+
+	@Transactional
+	@Modifying
+	@Query("""
+			DELETE FROM FileBlob blob
+			WHERE blob.contentHash = :contentHash
+			AND blob.refCount = 0
+			AND COALESCE(blob.releasedAt, blob.createdAt) < :unusedSince
+			""")
+	int deleteIfUnreferenced(String contentHash, LocalDateTime unusedSince);
+
+	@Query("""
+			SELECT new com.devskills.book.file.FileBlobReport(
+				COUNT(blob),
+				COALESCE(SUM(blob.size), 0),
+				COALESCE(SUM(CASE WHEN blob.refCount > 1 THEN (blob.refCount - 1) * blob.size ELSE 0 END), 0)
+			)
+			FROM FileBlob blob
+			""")
+	FileBlobReport report();
+
+}
@@ -0,0 +1,47 @@
+package com.devskills.book.file;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FileBlobSweeper {
+	
+	private final FileBlobRepository fileBlobRepository;
+	private final BlobStorage blobStorage;
+	
+	@Value("${application.file.blobs.sweep-grace-period}")
+	private Duration gracePeriod;
+	
+	@Scheduled(cron = "${application.file.blobs.sweep-cron}")
+	public void sweep() {
+		int deleted = 0;
+		LocalDateTime unusedSince = LocalDateTime.now().minus(gracePeriod);
+		for (FileBlob blob : fileBlobRepository.findUnreferencedBlobs(unusedSince)) {
+			if (fileBlobRepository.deleteIfUnreferenced(blob.getContentHash(), unusedSince) != 1) {
+				continue;
+			}
+			for (CoverSize coverSize : CoverSize.values()) {
+				blobStorage.delete(coverSize.resolve(blob.getPath()));
+			}
+			deleted++;
+		}
+		FileBlobReport report = fileBlobRepository.report();
+		log.info(
+				"Blob store: {} unreferenced blobs deleted, {} blobs holding {} bytes, {} bytes saved by deduplication",
+				deleted,
+				report.blobs(),
+				report.storedBytes(),
+				report.savedBytes()
+		);
+	}
+
+}
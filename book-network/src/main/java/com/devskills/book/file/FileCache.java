@@ -0,0 +1,100 @@
+package com.devskills.book.file;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class FileCache {
+	
+	private static final ByteBuffer MISSING = ByteBuffer.allocate(0).asReadOnlyBuffer();
+	
+	private final BlobStorage blobStorage;
+	private final Cache<String, ByteBuffer> cache;
+	
+	public FileCache(
+			BlobStorage blobStorage,
+			@Value("${application.file.cache.max-size}") DataSize maxSize,
+			@Value("${application.file.cache.miss-ttl}") Duration missTtl
+	) {
+		this.blobStorage = blobStorage;
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(maxSize.toBytes())
+				.weigher((String fileUrl, ByteBuffer content) -> Math.max(1, content.capacity()))
+				.expireAfter(new MissExpiry(missTtl))
+				.recordStats()
+				.build();
+	}
+	
+	public ByteBuffer read(String fileUrl) {
+		if (fileUrl == null) {
+			return null;
+		}
+		ByteBuffer content = cache.get(fileUrl, this::load);
+		return content == MISSING ? null : content.duplicate();
+	}
+	
+	public void invalidate(String fileUrl) {
+		if (fileUrl != null) {
+			cache.invalidate(fileUrl);
+		}
+	}
+	
+	public CacheStats stats() {
+		return cache.stats();
+	}
+	
+	@Scheduled(fixedRateString = "${application.file.cache.stats-log-interval}")
+	public void logStats() {
+		CacheStats stats = stats();
+		log.info(
+				"File cache: {} hits, {} misses, {} evictions, {} bytes in {} entries",
+				stats.hitCount(),
+				stats.missCount(),
+				stats.evictionCount(),
+				cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L),
+				cache.estimatedSize()
+		);
+	}
+	
+	private ByteBuffer load(String fileUrl) {
+		byte[] bytes = blobStorage.read(fileUrl);
+		if (bytes == null) {
+			return MISSING;
+		}
+		ByteBuffer content = ByteBuffer.allocateDirect(bytes.length);
+		content.put(bytes).flip();
+		return content.asReadOnlyBuffer();
+	}
+	
+	private record MissExpiry(Duration missTtl) implements Expiry<String, ByteBuffer> {
+		
+		@Override
+		public long expireAfterCreate(String fileUrl, ByteBuffer content, long currentTime) {
+			return content == MISSING ? missTtl.toNanos() : Long.MAX_VALUE;
+		}
+		
+		@Override
+		public long expireAfterUpdate(String fileUrl, ByteBuffer content, long currentTime, long currentDuration) {
+			return expireAfterCreate(fileUrl, content, currentTime);
+		}
+		
+		@Override
+		public long expireAfterRead(String fileUrl, ByteBuffer content, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+
+}
@@ -2,18 +2,35 @@ package com.devskills.book.file;
 
 import static java.io.File.separator;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-
-import static java.lang.System.currentTimeMillis;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.devskills.book.exception.OperationNotPermittedException;
+
 import jakarta.annotation.Nonnull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,42 +40,192 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class FileStorageService {
 	
+	private final CoverVariantGenerator coverVariantGenerator;
+	private final FileBlobRepository fileBlobRepository;
+	private final BlobStorage blobStorage;
+	
 	@Value("${application.file.upload.photos-output-path}")
 	private String fileUploadPath;
 	
-	public String saveFile(
-			@Nonnull MultipartFile sourceFile,
-			@Nonnull Integer userId
-	) {
-		final String fileUploadSubPath = "users" + separator + userId;
-		return uploadFile(sourceFile, fileUploadSubPath);
+	@Value("${application.file.upload.max-size}")
+	private DataSize maxFileSize;
+	
+	@Value("${application.file.upload.allowed-content-types}")
+	private List<String> allowedContentTypes;
+	
+	public SpooledFile spoolFile(@Nonnull MultipartFile sourceFile) {
+		Path workFolder = createWorkFolder();
+		if (workFolder == null) {
+			return null;
+		}
+		
+		Path tempPath = null;
+		try {
+			tempPath = Files.createTempFile(workFolder, "upload-", ".part");
+			String spooledFileKey;
+			String contentHash;
+			try (InputStream in = new BufferedInputStream(sourceFile.getInputStream())) {
+				MediaType contentType = checkContentType(in, sourceFile.getContentType());
+				spooledFileKey = "spool/" + UUID.randomUUID() + "." + contentType.getSubtype();
+				contentHash = copyWithLimit(in, tempPath);
+			}
+			blobStorage.store(spooledFileKey, tempPath);
+			log.info("File spooled to {}", spooledFileKey);
+			return new SpooledFile(spooledFileKey, contentHash);
+		} catch (IOException e) {
+			log.error("File was not spooled", e);
+		} finally {
+			deleteQuietly(tempPath);
+		}
+		return null;
 	}
 
-	private String uploadFile(
-			@Nonnull MultipartFile sourceFile,
-			@Nonnull String fileUploadSubPath
-	) {
-		final String finalUploadPath = fileUploadPath + separator + fileUploadSubPath;
-		File targetFolder = new File(finalUploadPath);
-		if (!targetFolder.exists()) {
-			boolean folderCreated = targetFolder.mkdirs();
-			if (!folderCreated) {
-				log.warn("Failed to create the target folder");
-				return null;
+	public String saveFile(
+			@Nonnull String spooledFileKey,
+			@Nonnull String contentHash
+	) throws IOException {
+		var existingBlob = fileBlobRepository.findById(contentHash);
+		if (existingBlob.isPresent() && blobStorage.exists(existingBlob.get().getPath())) {
+			String path = deduplicate(spooledFileKey, existingBlob.get());
+			if (path != null) {
+				return path;
 			}
+			existingBlob = Optional.empty();
+		}
+		
+		Path workFolder = createWorkFolder();
+		if (workFolder == null) {
+			throw new IOException("The work folder could not be created");
 		}
 		
-		final String fileExtension = getFileExtension(sourceFile.getOriginalFilename());
-		String targetFilePath = finalUploadPath + separator + currentTimeMillis() + "." + fileExtension;
-		Path targetPath = Paths.get(targetFilePath);
+		final String key = existingBlob
+				.map(FileBlob::getPath)
+				.orElseGet(() -> "blobs/" + contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4)
+						+ "/" + contentHash + "." + getFileExtension(spooledFileKey));
+		final String workFilePath = workFolder.resolve(UUID.randomUUID() + "." + getFileExtension(key)).toString();
 		try {
-			Files.write(targetPath, sourceFile.getBytes());
-			log.info("File saved to {}", targetFilePath);
-			return targetFilePath;
+			Path workPath = Paths.get(workFilePath);
+			blobStorage.fetch(spooledFileKey, workPath);
+			if (!coverVariantGenerator.generate(workPath)) {
+				deleteSpooledFile(spooledFileKey);
+				return null;
+			}
+			long size = Files.size(workPath);
+			for (CoverSize coverSize : CoverSize.values()) {
+				blobStorage.store(coverSize.resolve(key), Paths.get(coverSize.resolve(workFilePath)));
+			}
+			if (fileBlobRepository.insertIfAbsent(contentHash, key, size, LocalDateTime.now()) == 0) {
+				FileBlob concurrentBlob = fileBlobRepository.findById(contentHash)
+						.orElseThrow(() -> new IOException("The blob " + contentHash + " disappeared while being stored"));
+				if (!concurrentBlob.getPath().equals(key)) {
+					for (CoverSize coverSize : CoverSize.values()) {
+						blobStorage.delete(coverSize.resolve(key));
+					}
+				}
+				String path = deduplicate(spooledFileKey, concurrentBlob);
+				if (path == null) {
+					throw new IOException("The blob " + contentHash + " disappeared while being stored");
+				}
+				return path;
+			}
+			deleteSpooledFile(spooledFileKey);
+		} finally {
+			for (CoverSize coverSize : CoverSize.values()) {
+				deleteQuietly(Paths.get(coverSize.resolve(workFilePath)));
+			}
+		}
+		log.info("File saved to {}", key);
+		return key;
+	}
+
+	private String deduplicate(String spooledFileKey, FileBlob blob) {
+		if (fileBlobRepository.touch(blob.getContentHash(), LocalDateTime.now()) == 0) {
+			log.info("Blob {} was swept before it could be reused", blob.getPath());
+			return null;
+		}
+		deleteSpooledFile(spooledFileKey);
+		log.info("File deduplicated to {}", blob.getPath());
+		return blob.getPath();
+	}
+
+	@Transactional
+	public void retain(String path) {
+		if (path != null) {
+			fileBlobRepository.retain(path);
+		}
+	}
+
+	@Transactional
+	public void release(String path) {
+		if (path != null) {
+			fileBlobRepository.release(path, LocalDateTime.now());
+		}
+	}
+
+	public void deleteSpooledFile(String spooledFileKey) {
+		blobStorage.delete(spooledFileKey);
+	}
+
+	private Path createWorkFolder() {
+		File workFolder = new File(fileUploadPath + separator + "tmp");
+		if (!workFolder.exists() && !workFolder.mkdirs()) {
+			log.warn("Failed to create the work folder");
+			return null;
+		}
+		return workFolder.toPath();
+	}
+
+	public MediaType getContentType(Resource file) {
+		return Optional.ofNullable(file.getFilename())
+				.flatMap(MediaTypeFactory::getMediaType)
+				.filter(contentType -> allowedContentTypes.contains(contentType.toString()))
+				.orElse(MediaType.APPLICATION_OCTET_STREAM);
+	}
+
+	private MediaType checkContentType(InputStream in, String declaredContentType) throws IOException {
+		String detectedContentType = URLConnection.guessContentTypeFromStream(in);
+		String contentType = detectedContentType != null ? detectedContentType : declaredContentType;
+		if (contentType == null || !allowedContentTypes.contains(contentType)) {
+			throw new OperationNotPermittedException("The file type " + contentType + " is not allowed");
+		}
+		return MediaType.parseMediaType(contentType);
+	}
+
+	private String copyWithLimit(InputStream in, Path targetPath) throws IOException {
+		MessageDigest digest = newSha256Digest();
+		long maxBytes = maxFileSize.toBytes();
+		long written = 0;
+		byte[] buffer = new byte[8192];
+		try (OutputStream out = new DigestOutputStream(Files.newOutputStream(targetPath), digest)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				written += read;
+				if (written > maxBytes) {
+					throw new OperationNotPermittedException("The file exceeds the maximum size of " + maxFileSize);
+				}
+				out.write(buffer, 0, read);
+			}
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private MessageDigest newSha256Digest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private void deleteQuietly(Path path) {
+		if (path == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(path);
 		} catch (IOException e) {
-			log.error("File was not saved", e);
+			log.warn("Temporary file {} was not deleted", path);
 		}
-		return null;
 	}
 
 	private String getFileExtension(String fileName) {
@@ -0,0 +1,67 @@
+package com.devskills.book.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.file.storage.type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemBlobStorage implements BlobStorage {
+	
+	@Value("${application.file.upload.photos-output-path}")
+	private String fileUploadPath;
+
+	@Override
+	public void store(String key, Path source) throws IOException {
+		Path target = resolve(key);
+		Files.createDirectories(target.getParent());
+		Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public void fetch(String key, Path target) throws IOException {
+		Files.copy(resolve(key), target, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public Resource load(String key) {
+		return key == null ? null : FileUtils.loadFileAsResource(resolve(key).toString());
+	}
+
+	@Override
+	public byte[] read(String key) {
+		return key == null ? null : FileUtils.readFileFromLocation(resolve(key).toString());
+	}
+
+	@Override
+	public boolean exists(String key) {
+		return key != null && Files.exists(resolve(key));
+	}
+
+	@Override
+	public void delete(String key) {
+		if (key == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(resolve(key));
+		} catch (IOException e) {
+			log.warn("File {} was not deleted", key);
+		}
+	}
+
+	private Path resolve(String key) {
+		return Paths.get(fileUploadPath, FileUtils.toStorageKey(fileUploadPath, key));
+	}
+
+}
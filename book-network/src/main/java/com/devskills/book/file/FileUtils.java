@@ -1,11 +1,15 @@
 package com.devskills.book.file;
 
+import static java.io.File.separator;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,5 +28,25 @@ public class FileUtils {
 		}
 		return null;
 	}
+	
+	public static Resource loadFileAsResource(String fileUrl) {
+		if (StringUtils.isBlank(fileUrl)) {
+			return null;
+		}
+		Resource resource = new FileSystemResource(fileUrl);
+		if (!resource.isReadable()) {
+			log.warn("No file found in the path {}", fileUrl);
+			return null;
+		}
+		return resource;
+	}
+	
+	public static String toStorageKey(String fileUploadPath, String location) {
+		String uploadPathPrefix = fileUploadPath + separator;
+		if (location.startsWith(uploadPathPrefix)) {
+			return location.substring(uploadPathPrefix.length()).replace(separator, "/");
+		}
+		return location;
+	}
 
 }
@@ -0,0 +1,235 @@
+package com.devskills.book.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.file.storage.type", havingValue = "s3")
+public class S3BlobStorage implements BlobStorage {
+
+	private final S3Client s3Client;
+	private final String bucket;
+	private final String fileUploadPath;
+	private final boolean localFallback;
+
+	public S3BlobStorage(
+			@Value("${application.file.upload.photos-output-path}") String fileUploadPath,
+			@Value("${application.file.storage.s3.endpoint}") String endpoint,
+			@Value("${application.file.storage.s3.region}") String region,
+			@Value("${application.file.storage.s3.bucket}") String bucket,
+			@Value("${application.file.storage.s3.access-key}") String accessKey,
+			@Value("${application.file.storage.s3.secret-key}") String secretKey,
+			@Value("${application.file.storage.s3.path-style-access}") boolean pathStyleAccess,
+			@Value("${application.file.storage.s3.local-fallback}") boolean localFallback
+	) {
+		var builder = S3Client.builder()
+				.region(Region.of(region))
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+				.forcePathStyle(pathStyleAccess);
+		if (endpoint != null && !endpoint.isBlank()) {
+			builder.endpointOverride(URI.create(endpoint));
+		}
+		this.s3Client = builder.build();
+		this.bucket = bucket;
+		this.fileUploadPath = fileUploadPath;
+		this.localFallback = localFallback;
+	}
+
+	@PostConstruct
+	public void createBucketIfMissing() {
+		try {
+			s3Client.headBucket(request -> request.bucket(bucket));
+		} catch (NoSuchBucketException e) {
+			s3Client.createBucket(request -> request.bucket(bucket));
+			log.info("Bucket {} created", bucket);
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		s3Client.close();
+	}
+
+	@Override
+	public void store(String key, Path source) throws IOException {
+		try {
+			s3Client.putObject(
+					request -> request.bucket(bucket).key(normalize(key)),
+					RequestBody.fromFile(source)
+			);
+		} catch (SdkException e) {
+			throw new IOException("The object " + key + " was not stored", e);
+		}
+		Files.deleteIfExists(source);
+	}
+
+	@Override
+	public void fetch(String key, Path target) throws IOException {
+		String storageKey = normalize(key);
+		try (InputStream in = s3Client.getObject(request -> request.bucket(bucket).key(storageKey))) {
+			Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+		} catch (NoSuchKeyException e) {
+			Path localFile = localFile(storageKey);
+			if (localFile == null) {
+				throw new IOException("The object " + key + " does not exist", e);
+			}
+			Files.copy(localFile, target, StandardCopyOption.REPLACE_EXISTING);
+		} catch (SdkException e) {
+			throw new IOException("The object " + key + " was not fetched", e);
+		}
+	}
+
+	@Override
+	public Resource load(String key) {
+		if (key == null) {
+			return null;
+		}
+		String storageKey = normalize(key);
+		HeadObjectResponse head = head(storageKey);
+		if (head == null) {
+			Path localFile = localFile(storageKey);
+			return localFile == null ? null : FileUtils.loadFileAsResource(localFile.toString());
+		}
+		return new S3ObjectResource(storageKey, head.contentLength(), head.lastModified().toEpochMilli());
+	}
+
+	@Override
+	public byte[] read(String key) {
+		if (key == null) {
+			return null;
+		}
+		String storageKey = normalize(key);
+		try {
+			return s3Client.getObjectAsBytes(request -> request.bucket(bucket).key(storageKey)).asByteArray();
+		} catch (NoSuchKeyException e) {
+			Path localFile = localFile(storageKey);
+			return localFile == null ? null : FileUtils.readFileFromLocation(localFile.toString());
+		} catch (SdkException e) {
+			log.warn("The object {} could not be read", key);
+			return null;
+		}
+	}
+
+	@Override
+	public boolean exists(String key) {
+		if (key == null) {
+			return false;
+		}
+		String storageKey = normalize(key);
+		return head(storageKey) != null || localFile(storageKey) != null;
+	}
+
+	@Override
+	public void delete(String key) {
+		if (key == null) {
+			return;
+		}
+		String storageKey = normalize(key);
+		try {
+			s3Client.deleteObject(request -> request.bucket(bucket).key(storageKey));
+		} catch (SdkException e) {
+			log.warn("The object {} was not deleted", key);
+		}
+		Path localFile = localFile(storageKey);
+		if (localFile != null) {
+			try {
+				Files.deleteIfExists(localFile);
+			} catch (IOException e) {
+				log.warn("The local file {} was not deleted", localFile);
+			}
+		}
+	}
+
+	private HeadObjectResponse head(String storageKey) {
+		try {
+			return s3Client.headObject(request -> request.bucket(bucket).key(storageKey));
+		} catch (NoSuchKeyException e) {
+			return null;
+		}
+	}
+
+	private Path localFile(String storageKey) {
+		if (!localFallback) {
+			return null;
+		}
+		Path localFile = Paths.get(fileUploadPath, storageKey);
+		return Files.isRegularFile(localFile) ? localFile : null;
+	}
+
+	private String normalize(String key) {
+		return FileUtils.toStorageKey(fileUploadPath, key);
+	}
+
+	private class S3ObjectResource extends AbstractResource {
+
+		private final String storageKey;
+		private final long contentLength;
+		private final long lastModified;
+
+		private S3ObjectResource(String storageKey, long contentLength, long lastModified) {
+			this.storageKey = storageKey;
+			this.contentLength = contentLength;
+			this.lastModified = lastModified;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			try {
+				return s3Client.getObject(request -> request.bucket(bucket).key(storageKey));
+			} catch (SdkException e) {
+				throw new IOException("The object " + storageKey + " could not be opened", e);
+			}
+		}
+
+		@Override
+		public boolean isReadable() {
+			return true;
+		}
+
+		@Override
+		public long contentLength() {
+			return contentLength;
+		}
+
+		@Override
+		public long lastModified() {
+			return lastModified;
+		}
+
+		@Override
+		public String getFilename() {
+			return storageKey;
+		}
+
+		@Override
+		public String getDescription() {
+			return "S3 object [" + bucket + "/" + storageKey + "]";
+		}
+	}
+
+}
@@ -0,0 +1,477 @@
+package com.devskills.book.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.file.storage.type", havingValue = "segment")
+public class SegmentBlobStorage implements BlobStorage {
+
+	private static final int RECORD_MAGIC = 0x424C4F42;
+	private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES * 2;
+	private static final int COMPARE_BUFFER_SIZE = 64 * 1024;
+	private static final long TOMBSTONE = -1L;
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".dat";
+
+	private final Map<String, SegmentEntry> index = new ConcurrentHashMap<>();
+	private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+	private final Path segmentFolder;
+	private final String fileUploadPath;
+	private final long maxSegmentSize;
+	private final long growthChunk;
+	private final double compactionThreshold;
+	private volatile Segment activeSegment;
+
+	public SegmentBlobStorage(
+			@Value("${application.file.upload.photos-output-path}") String fileUploadPath,
+			@Value("${application.file.storage.segment.max-segment-size}") DataSize maxSegmentSize,
+			@Value("${application.file.storage.segment.growth-chunk}") DataSize growthChunk,
+			@Value("${application.file.storage.segment.compaction-threshold}") double compactionThreshold
+	) {
+		this.fileUploadPath = fileUploadPath;
+		this.segmentFolder = Paths.get(fileUploadPath, "segments");
+		this.maxSegmentSize = Math.min(maxSegmentSize.toBytes(), Integer.MAX_VALUE);
+		this.growthChunk = Math.max(growthChunk.toBytes(), 1);
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	@PostConstruct
+	public synchronized void open() throws IOException {
+		Files.createDirectories(segmentFolder);
+		List<Integer> segmentIds = new ArrayList<>();
+		try (Stream<Path> files = Files.list(segmentFolder)) {
+			files.map(path -> path.getFileName().toString())
+					.filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+					.map(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+					.sorted()
+					.forEach(segmentIds::add);
+		}
+		for (Integer segmentId : segmentIds) {
+			Segment segment = openSegment(segmentId);
+			segments.put(segmentId, segment);
+			scan(segment);
+			activeSegment = segment;
+		}
+		if (activeSegment == null) {
+			activeSegment = openSegment(1);
+			segments.put(1, activeSegment);
+		}
+		log.info("Segment storage opened with {} segments and {} blobs", segments.size(), index.size());
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		for (Segment segment : segments.values()) {
+			try {
+				seal(segment);
+			} catch (IOException e) {
+				log.warn("Segment {} was not trimmed to its used size", segment.id);
+			}
+			closeQuietly(segment);
+		}
+	}
+
+	@Override
+	public void store(String key, Path source) throws IOException {
+		pack(key, source);
+		Files.deleteIfExists(source);
+	}
+
+	public void pack(String key, Path source) throws IOException {
+		long length = Files.size(source);
+		try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ)) {
+			append(normalize(key), length, target -> {
+				while (target.hasRemaining()) {
+					if (sourceChannel.read(target) <= 0) {
+						throw new IOException("The file " + source + " ended before " + length + " bytes were read");
+					}
+				}
+			});
+		}
+	}
+
+	public boolean matches(String key, Path source) throws IOException {
+		ByteBuffer content = slice(normalize(key));
+		if (content == null || content.remaining() != Files.size(source)) {
+			return false;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(COMPARE_BUFFER_SIZE);
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+			while (content.hasRemaining()) {
+				buffer.clear().limit(Math.min(buffer.capacity(), content.remaining()));
+				if (channel.read(buffer) <= 0) {
+					return false;
+				}
+				buffer.flip();
+				if (!content.slice(content.position(), buffer.remaining()).equals(buffer)) {
+					return false;
+				}
+				content.position(content.position() + buffer.remaining());
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void fetch(String key, Path target) throws IOException {
+		ByteBuffer content = slice(normalize(key));
+		if (content == null) {
+			throw new IOException("The blob " + key + " does not exist");
+		}
+		try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (content.hasRemaining()) {
+				channel.write(content);
+			}
+		}
+	}
+
+	@Override
+	public Resource load(String key) {
+		if (key == null) {
+			return null;
+		}
+		String storageKey = normalize(key);
+		SegmentEntry entry = index.get(storageKey);
+		ByteBuffer content = slice(storageKey);
+		if (entry == null || content == null) {
+			return null;
+		}
+		return new ByteBufferResource(content, storageKey, entry.storedAt());
+	}
+
+	@Override
+	public byte[] read(String key) {
+		if (key == null) {
+			return null;
+		}
+		ByteBuffer content = slice(normalize(key));
+		if (content == null) {
+			return null;
+		}
+		byte[] bytes = new byte[content.remaining()];
+		content.get(bytes);
+		return bytes;
+	}
+
+	@Override
+	public boolean exists(String key) {
+		return key != null && index.containsKey(normalize(key));
+	}
+
+	@Override
+	public synchronized void delete(String key) {
+		if (key == null) {
+			return;
+		}
+		String storageKey = normalize(key);
+		SegmentEntry entry = index.remove(storageKey);
+		if (entry == null) {
+			return;
+		}
+		markDead(entry);
+		try {
+			SegmentEntry tombstone = writeRecord(storageKey.getBytes(StandardCharsets.UTF_8), TOMBSTONE, null);
+			activeSegment.deadBytes.addAndGet(tombstone.recordSize());
+		} catch (IOException e) {
+			log.error("Tombstone for {} was not written", storageKey, e);
+		}
+	}
+
+	@Scheduled(cron = "${application.file.storage.segment.compaction-cron}")
+	public void compact() {
+		for (Segment segment : List.copyOf(segments.values())) {
+			long size = segment.size.get();
+			if (segment != activeSegment && size > 0 && (double) segment.deadBytes.get() / size >= compactionThreshold) {
+				try {
+					compact(segment);
+				} catch (IOException e) {
+					log.error("Segment {} was not compacted", segment.id, e);
+				}
+			}
+		}
+	}
+
+	private String normalize(String key) {
+		return FileUtils.toStorageKey(fileUploadPath, key);
+	}
+
+	private void compact(Segment segment) throws IOException {
+		boolean oldestSegment = segments.keySet().stream().allMatch(id -> id >= segment.id);
+		MappedByteBuffer mapped = segment.mapped;
+		int position = 0;
+		int moved = 0;
+		while (position + HEADER_SIZE <= segment.size.get()) {
+			RecordHeader header = RecordHeader.read(mapped, position);
+			byte[] keyBytes = new byte[header.keyLength()];
+			mapped.get(position + HEADER_SIZE, keyBytes);
+			String key = new String(keyBytes, StandardCharsets.UTF_8);
+			int dataOffset = position + HEADER_SIZE + header.keyLength();
+			if (header.dataLength() == TOMBSTONE) {
+				if (!oldestSegment) {
+					synchronized (this) {
+						if (!index.containsKey(key)) {
+							SegmentEntry tombstone = writeRecord(keyBytes, TOMBSTONE, null);
+							activeSegment.deadBytes.addAndGet(tombstone.recordSize());
+						}
+					}
+				}
+				position = dataOffset;
+				continue;
+			}
+			SegmentEntry current = index.get(key);
+			if (current != null && current.segmentId() == segment.id && current.dataOffset() == dataOffset) {
+				ByteBuffer data = mapped.slice(dataOffset, (int) header.dataLength());
+				synchronized (this) {
+					SegmentEntry copy = writeRecord(keyBytes, header.dataLength(), target -> target.put(data.duplicate()));
+					if (index.replace(key, current, copy)) {
+						activeSegment.liveBytes.addAndGet(copy.recordSize());
+						moved++;
+					} else {
+						activeSegment.deadBytes.addAndGet(copy.recordSize());
+					}
+				}
+			}
+			position = dataOffset + (int) header.dataLength();
+		}
+		segments.remove(segment.id);
+		closeQuietly(segment);
+		Files.deleteIfExists(segment.path);
+		log.info("Segment {} compacted, {} blobs moved", segment.id, moved);
+	}
+
+	private synchronized void append(String key, long length, DataSource source) throws IOException {
+		SegmentEntry entry = writeRecord(key.getBytes(StandardCharsets.UTF_8), length, source);
+		activeSegment.liveBytes.addAndGet(entry.recordSize());
+		SegmentEntry previous = index.put(key, entry);
+		if (previous != null) {
+			markDead(previous);
+		}
+	}
+
+	private synchronized SegmentEntry writeRecord(byte[] keyBytes, long dataLength, DataSource source) throws IOException {
+		long recordSize = HEADER_SIZE + keyBytes.length + Math.max(dataLength, 0);
+		if (recordSize > maxSegmentSize) {
+			throw new IOException("The blob " + new String(keyBytes, StandardCharsets.UTF_8) + " is larger than a segment");
+		}
+		if (activeSegment.size.get() > 0 && activeSegment.size.get() + recordSize > maxSegmentSize) {
+			rollSegment();
+		}
+		Segment segment = activeSegment;
+		int position = (int) segment.size.get();
+		int dataSize = (int) Math.max(dataLength, 0);
+		int keyOffset = position + HEADER_SIZE;
+		int dataOffset = keyOffset + keyBytes.length;
+		MappedByteBuffer mapped = ensureCapacity(segment, position + recordSize);
+		mapped.put(keyOffset, keyBytes);
+		if (source != null) {
+			source.copyTo(mapped.slice(dataOffset, dataSize));
+		}
+		long storedAt = System.currentTimeMillis();
+		new RecordHeader(RECORD_MAGIC, keyBytes.length, dataLength, storedAt, checksum(mapped, keyOffset, keyBytes.length + dataSize))
+				.write(mapped, position);
+		mapped.force(position, (int) recordSize);
+		segment.size.addAndGet(recordSize);
+		return new SegmentEntry(segment.id, dataOffset, dataSize, storedAt, recordSize);
+	}
+
+	private MappedByteBuffer ensureCapacity(Segment segment, long required) throws IOException {
+		MappedByteBuffer mapped = segment.mapped;
+		if (mapped != null && mapped.capacity() >= required) {
+			return mapped;
+		}
+		long capacity = Math.max(required, Math.min((required + growthChunk - 1) / growthChunk * growthChunk, maxSegmentSize));
+		segment.mapped = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		return segment.mapped;
+	}
+
+	private void rollSegment() throws IOException {
+		seal(activeSegment);
+		int nextId = activeSegment.id + 1;
+		Segment segment = openSegment(nextId);
+		segments.put(nextId, segment);
+		activeSegment = segment;
+	}
+
+	private void seal(Segment segment) throws IOException {
+		if (segment.channel.isOpen() && segment.channel.size() > segment.size.get()) {
+			segment.channel.truncate(segment.size.get());
+		}
+	}
+
+	private ByteBuffer slice(String key) {
+		for (int attempt = 0; attempt < 2; attempt++) {
+			SegmentEntry entry = index.get(key);
+			if (entry == null) {
+				return null;
+			}
+			Segment segment = segments.get(entry.segmentId());
+			if (segment == null || segment.mapped == null) {
+				continue;
+			}
+			return segment.mapped.slice((int) entry.dataOffset(), entry.length()).asReadOnlyBuffer();
+		}
+		return null;
+	}
+
+	private void scan(Segment segment) throws IOException {
+		long fileSize = Math.min(segment.channel.size(), Integer.MAX_VALUE);
+		MappedByteBuffer mapped = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+		segment.mapped = mapped;
+		int position = 0;
+		RecordHeader header = null;
+		while (position + HEADER_SIZE <= fileSize) {
+			header = RecordHeader.read(mapped, position);
+			long recordSize = header.recordSize();
+			if (header.magic() != RECORD_MAGIC || header.keyLength() <= 0 || header.dataLength() < TOMBSTONE
+					|| position + recordSize > fileSize
+					|| header.crc() != checksum(mapped, position + HEADER_SIZE, (int) (recordSize - HEADER_SIZE))) {
+				break;
+			}
+			byte[] keyBytes = new byte[header.keyLength()];
+			mapped.get(position + HEADER_SIZE, keyBytes);
+			String key = new String(keyBytes, StandardCharsets.UTF_8);
+			SegmentEntry previous;
+			if (header.dataLength() == TOMBSTONE) {
+				previous = index.remove(key);
+				segment.deadBytes.addAndGet(recordSize);
+			} else {
+				SegmentEntry entry = new SegmentEntry(segment.id, position + HEADER_SIZE + header.keyLength(), (int) header.dataLength(), header.storedAt(), recordSize);
+				previous = index.put(key, entry);
+				segment.liveBytes.addAndGet(recordSize);
+			}
+			if (previous != null) {
+				markDead(previous);
+			}
+			position += (int) recordSize;
+			header = null;
+		}
+		if (position < fileSize) {
+			if (header == null || header.magic() != 0) {
+				log.warn("Segment {} truncated from {} to {} bytes after an incomplete or corrupted record", segment.id, fileSize, position);
+			} else {
+				log.info("Segment {} trimmed from {} to {} bytes", segment.id, fileSize, position);
+			}
+			segment.channel.truncate(position);
+		}
+		segment.size.set(position);
+	}
+
+	private static int checksum(ByteBuffer buffer, int offset, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(buffer.slice(offset, length));
+		return (int) crc.getValue();
+	}
+
+	private void markDead(SegmentEntry entry) {
+		Segment segment = segments.get(entry.segmentId());
+		if (segment != null) {
+			segment.liveBytes.addAndGet(-entry.recordSize());
+			segment.deadBytes.addAndGet(entry.recordSize());
+		}
+	}
+
+	private Segment openSegment(int segmentId) throws IOException {
+		Path path = segmentFolder.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		return new Segment(segmentId, path, channel);
+	}
+
+	private void closeQuietly(Segment segment) {
+		try {
+			segment.channel.close();
+		} catch (IOException e) {
+			log.warn("Segment {} was not closed", segment.id);
+		}
+	}
+
+	private record RecordHeader(
+			int magic,
+			int keyLength,
+			long dataLength,
+			long storedAt,
+			int crc
+	) {
+
+		private static RecordHeader read(ByteBuffer buffer, int position) {
+			return new RecordHeader(
+					buffer.getInt(position),
+					buffer.getInt(position + 4),
+					buffer.getLong(position + 8),
+					buffer.getLong(position + 16),
+					buffer.getInt(position + 24)
+			);
+		}
+
+		private void write(ByteBuffer buffer, int position) {
+			buffer.putInt(position, magic)
+					.putInt(position + 4, keyLength)
+					.putLong(position + 8, dataLength)
+					.putLong(position + 16, storedAt)
+					.putInt(position + 24, crc);
+		}
+
+		private long recordSize() {
+			return HEADER_SIZE + (long) keyLength + Math.max(dataLength, 0);
+		}
+	}
+
+	private record SegmentEntry(
+			int segmentId,
+			long dataOffset,
+			int length,
+			long storedAt,
+			long recordSize
+	) {
+	}
+
+	private static final class Segment {
+
+		private final int id;
+		private final Path path;
+		private final FileChannel channel;
+		private final AtomicLong size = new AtomicLong();
+		private final AtomicLong liveBytes = new AtomicLong();
+		private final AtomicLong deadBytes = new AtomicLong();
+		private volatile MappedByteBuffer mapped;
+
+		private Segment(int id, Path path, FileChannel channel) {
+			this.id = id;
+			this.path = path;
+			this.channel = channel;
+		}
+	}
+
+	@FunctionalInterface
+	private interface DataSource {
+
+		void copyTo(ByteBuffer target) throws IOException;
+	}
+
+}
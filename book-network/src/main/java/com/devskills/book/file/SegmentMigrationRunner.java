@@ -0,0 +1,83 @@
+package com.devskills.book.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "application.file.storage.type", havingValue = "segment")
+public class SegmentMigrationRunner implements ApplicationRunner {
+	
+	private static final String PACK_UPLOADS_OPTION = "pack-uploads";
+	private static final String DELETE_PACKED_UPLOADS_OPTION = "delete-packed-uploads";
+	
+	private final SegmentBlobStorage segmentBlobStorage;
+	
+	@Value("${application.file.upload.photos-output-path}")
+	private String fileUploadPath;
+
+	@Override
+	public void run(ApplicationArguments args) throws IOException {
+		if (!args.containsOption(PACK_UPLOADS_OPTION)) {
+			return;
+		}
+		boolean deleteSources = args.containsOption(DELETE_PACKED_UPLOADS_OPTION);
+		Path uploadPath = Paths.get(fileUploadPath);
+		int packed = 0;
+		int deleted = 0;
+		int failed = 0;
+		for (String folder : List.of("users", "blobs")) {
+			Path folderPath = uploadPath.resolve(folder);
+			if (!Files.isDirectory(folderPath)) {
+				continue;
+			}
+			List<Path> files;
+			try (Stream<Path> paths = Files.walk(folderPath)) {
+				files = paths
+						.filter(Files::isRegularFile)
+						.filter(path -> !path.toString().endsWith(".part"))
+						.toList();
+			}
+			for (Path file : files) {
+				String key = uploadPath.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+				try {
+					if (!segmentBlobStorage.matches(key, file)) {
+						segmentBlobStorage.pack(key, file);
+					}
+					if (!segmentBlobStorage.matches(key, file)) {
+						log.error("File {} does not match its packed copy", file);
+						failed++;
+						continue;
+					}
+					packed++;
+					if (deleteSources) {
+						Files.delete(file);
+						deleted++;
+					}
+				} catch (IOException e) {
+					log.error("File {} was not packed", file, e);
+					failed++;
+				}
+			}
+		}
+		log.info("Uploads packed into segments: {} files packed, {} deleted, {} failed", packed, deleted, failed);
+		if (!deleteSources && packed > 0) {
+			log.info("The original uploads were kept, run again with --{} to delete the files that match their packed copy", DELETE_PACKED_UPLOADS_OPTION);
+		}
+	}
+
+}
@@ -0,0 +1,8 @@
+package com.devskills.book.file;
+
+public record SpooledFile(
+		String path,
+		String contentHash
+) {
+
+}
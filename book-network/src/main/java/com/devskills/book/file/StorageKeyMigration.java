@@ -0,0 +1,38 @@
+package com.devskills.book.file;
+
+import static java.io.File.separator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devskills.book.book.BookRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StorageKeyMigration {
+	
+	private final BookRepository bookRepository;
+	private final FileBlobRepository fileBlobRepository;
+	
+	@Value("${application.file.upload.photos-output-path}")
+	private String fileUploadPath;
+	
+	@Transactional
+	@EventListener(ApplicationReadyEvent.class)
+	public void migrate() {
+		String uploadPathPrefix = fileUploadPath + separator;
+		int books = bookRepository.stripBookCoverPrefix(uploadPathPrefix);
+		int blobs = fileBlobRepository.stripPathPrefix(uploadPathPrefix);
+		if (books > 0 || blobs > 0) {
+			log.info("Storage keys migrated for {} book covers and {} blobs", books, blobs);
+		}
+	}
+
+}
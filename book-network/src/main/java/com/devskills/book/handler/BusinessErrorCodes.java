@@ -4,6 +4,7 @@ import org.springframework.http.HttpStatus;
 import static org.springframework.http.HttpStatus.NOT_IMPLEMENTED;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 import lombok.Getter;
 
@@ -19,7 +20,11 @@ public enum BusinessErrorCodes {
 	
 	ACCOUNT_DISABLED(303, FORBIDDEN, "User account is disabled"),
 	
-	BAD_CREDENTIALS(304, FORBIDDEN, "Login and / or password is incorrect")
+	BAD_CREDENTIALS(304, FORBIDDEN, "Login and / or password is incorrect"),
+	
+	TOO_MANY_LOGIN_ATTEMPTS(305, TOO_MANY_REQUESTS, "Too many failed login attempts"),
+	
+	RATE_LIMIT_EXCEEDED(306, TOO_MANY_REQUESTS, "Too many requests")
 	;
 	
 	@Getter
@@ -6,9 +6,12 @@ import java.util.Set;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 import org.hibernate.exception.DataException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
@@ -18,12 +21,15 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.devskills.book.exception.OperationNotPermittedException;
+import com.devskills.book.exception.PasswordHashingUnavailableException;
+import com.devskills.book.exception.TooManyLoginAttemptsException;
 
 import jakarta.mail.MessagingException;
 
 import static com.devskills.book.handler.BusinessErrorCodes.ACCOUNT_LOCKED;
 import static com.devskills.book.handler.BusinessErrorCodes.ACCOUNT_DISABLED;
-import static com.devskills.book.handler.BusinessErrorCodes.BAD_CREDENTIALS;;
+import static com.devskills.book.handler.BusinessErrorCodes.BAD_CREDENTIALS;
+import static com.devskills.book.handler.BusinessErrorCodes.TOO_MANY_LOGIN_ATTEMPTS;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -67,6 +73,31 @@ public class GlobalExceptionHandler {
 				);
 	}
 	
+	@ExceptionHandler(TooManyLoginAttemptsException.class)
+	public ResponseEntity<ExceptionResponse> handleException(TooManyLoginAttemptsException exp) {
+		return ResponseEntity
+				.status(TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exp.getRetryAfter().toSeconds()))
+				.body(
+						ExceptionResponse.builder()
+							.businessErrorCode(TOO_MANY_LOGIN_ATTEMPTS.getCode())
+							.businessErrorDescription(TOO_MANY_LOGIN_ATTEMPTS.getDescription())
+							.error(exp.getMessage())
+							.build()
+				);
+	}
+	
+	@ExceptionHandler(PasswordHashingUnavailableException.class)
+	public ResponseEntity<ExceptionResponse> handleException(PasswordHashingUnavailableException exp) {
+		return ResponseEntity
+				.status(SERVICE_UNAVAILABLE)
+				.body(
+						ExceptionResponse.builder()
+							.error(exp.getMessage())
+							.build()
+				);
+	}
+	
 	@ExceptionHandler(MessagingException.class)
 	public ResponseEntity<ExceptionResponse> handleException(MessagingException exp) {
 		return ResponseEntity
@@ -0,0 +1,17 @@
+package com.devskills.book.history;
+
+import java.time.LocalDateTime;
+
+public record BookHistoryExportRow(
+		Integer id,
+		Integer bookId,
+		String title,
+		String authorName,
+		String isbn,
+		Integer borrowerId,
+		Integer ownerId,
+		boolean returned,
+		boolean returnApproved,
+		LocalDateTime createdDate
+) {
+}
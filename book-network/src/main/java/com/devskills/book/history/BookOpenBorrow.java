@@ -0,0 +1,7 @@
+package com.devskills.book.history;
+
+public record BookOpenBorrow(
+		Integer bookId,
+		Integer historyId
+) {
+}
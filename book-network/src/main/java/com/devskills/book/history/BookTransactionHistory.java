@@ -4,9 +4,12 @@ import com.devskills.book.book.Book;
 import com.devskills.book.common.BaseEntity;
 import com.devskills.book.user.User;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -19,6 +22,12 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+		@Index(columnList = "user_id, created_date, id"),
+		@Index(columnList = "book_id, created_date, id"),
+		@Index(columnList = "owner_id, created_date, id"),
+		@Index(columnList = "book_id, return_approved")
+})
 public class BookTransactionHistory extends BaseEntity {
 	
 	@ManyToOne
@@ -29,6 +38,9 @@ public class BookTransactionHistory extends BaseEntity {
 	@JoinColumn(name = "book_id")
 	private Book book;
 	
+	@Column(name = "owner_id")
+	private Integer ownerId;
+	
 	private boolean returned;
 	
 	private boolean returnApproved;
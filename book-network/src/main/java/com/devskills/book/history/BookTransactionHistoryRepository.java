@@ -1,11 +1,22 @@
 package com.devskills.book.history;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
 
 public interface BookTransactionHistoryRepository extends JpaRepository<BookTransactionHistory, Integer> {
 
@@ -19,10 +30,88 @@ public interface BookTransactionHistoryRepository extends JpaRepository<BookTran
 	@Query("""
 			SELECT history
 			FROM BookTransactionHistory history
-			WHERE history.book.owner.id = :userId
+			WHERE history.ownerId = :userId
 			""")
 	Page<BookTransactionHistory> findAllReturnedBooks(Pageable pageable, Integer userId);
 
+	@Query("""
+			SELECT history
+			FROM BookTransactionHistory history
+			WHERE history.user.id = :userId
+			""")
+	Slice<BookTransactionHistory> findBorrowedBooksSlice(Pageable pageable, Integer userId);
+
+	@Query("""
+			SELECT history
+			FROM BookTransactionHistory history
+			WHERE history.ownerId = :userId
+			""")
+	Slice<BookTransactionHistory> findReturnedBooksSlice(Pageable pageable, Integer userId);
+
+	@Query("""
+			SELECT COUNT(history)
+			FROM BookTransactionHistory history
+			WHERE history.user.id = :userId
+			""")
+	long countBorrowedBooks(Integer userId);
+
+	@Query("""
+			SELECT COUNT(history)
+			FROM BookTransactionHistory history
+			WHERE history.ownerId = :userId
+			""")
+	long countReturnedBooks(Integer userId);
+
+	@Query("""
+			SELECT history
+			FROM BookTransactionHistory history
+			WHERE history.user.id = :userId
+			AND (history.createdDate, history.id) < (:createdDate, :id)
+			ORDER BY history.createdDate DESC, history.id DESC
+			""")
+	List<BookTransactionHistory> findBorrowedBooksBefore(Integer userId, LocalDateTime createdDate, Integer id, Limit limit);
+
+	@Query("""
+			SELECT history
+			FROM BookTransactionHistory history
+			WHERE history.ownerId = :userId
+			AND (history.createdDate, history.id) < (:createdDate, :id)
+			ORDER BY history.createdDate DESC, history.id DESC
+			""")
+	List<BookTransactionHistory> findReturnedBooksBefore(Integer userId, LocalDateTime createdDate, Integer id, Limit limit);
+
+	@Transactional
+	@Modifying
+	@Query("""
+			UPDATE BookTransactionHistory history
+			SET history.ownerId = (SELECT book.owner.id FROM Book book WHERE book.id = history.book.id)
+			WHERE history.ownerId IS NULL
+			""")
+	int backfillOwnerIds();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+			SELECT new com.devskills.book.history.BookOpenBorrow(history.book.id, history.id)
+			FROM BookTransactionHistory history
+			WHERE history.returnApproved = false
+			""")
+	Stream<BookOpenBorrow> streamOpenBorrows();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+			SELECT new com.devskills.book.history.BookHistoryExportRow(
+				history.id, book.id, book.title, book.authorName, book.isbn,
+				history.user.id, book.owner.id,
+				history.returned, history.returnApproved, history.createdDate
+			)
+			FROM BookTransactionHistory history
+			JOIN history.book book
+			WHERE history.user.id = :userId
+			OR history.ownerId = :userId
+			ORDER BY history.id
+			""")
+	Stream<BookHistoryExportRow> streamExportRowsByUser(Integer userId);
+
 	@Query("""
 			SELECT
 			(COUNT(*) > 0) AS isBorrowed
@@ -0,0 +1,25 @@
+package com.devskills.book.history;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class HistoryOwnerMigration {
+	
+	private final BookTransactionHistoryRepository transactionHistoryRepository;
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void migrate() {
+		int histories = transactionHistoryRepository.backfillOwnerIds();
+		if (histories > 0) {
+			log.info("Owner ids backfilled for {} transaction histories", histories);
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.devskills.book.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class BloomFilter {
+	
+	private final AtomicLongArray bits;
+	private final long bitCount;
+	private final int hashCount;
+	private final int capacity;
+	private final AtomicInteger size = new AtomicInteger();
+	
+	BloomFilter(int capacity, double falsePositiveRate) {
+		int expected = Math.max(1, capacity);
+		long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+		this.bitCount = bits.length() * 64L;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+		this.capacity = expected;
+	}
+	
+	boolean put(String value) {
+		long hash = hash(value);
+		int first = (int) hash;
+		int second = (int) (hash >>> 32);
+		boolean added = false;
+		for (int i = 1; i <= hashCount; i++) {
+			long index = index(first + i * second);
+			long mask = 1L << index;
+			long previous = bits.getAndAccumulate((int) (index >>> 6), mask, (current, bit) -> current | bit);
+			added |= (previous & mask) == 0;
+		}
+		if (added) {
+			size.incrementAndGet();
+		}
+		return added;
+	}
+	
+	boolean mightContain(String value) {
+		long hash = hash(value);
+		int first = (int) hash;
+		int second = (int) (hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = index(first + i * second);
+			if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	boolean isSaturated() {
+		return size.get() > capacity;
+	}
+	
+	int size() {
+		return size.get();
+	}
+	
+	private long index(int combined) {
+		return Integer.toUnsignedLong(combined) % bitCount;
+	}
+	
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
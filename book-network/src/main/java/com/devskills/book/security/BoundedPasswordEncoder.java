@@ -0,0 +1,94 @@
+package com.devskills.book.security;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.devskills.book.exception.PasswordHashingUnavailableException;
+
+import jakarta.annotation.PreDestroy;
+
+public class BoundedPasswordEncoder implements PasswordEncoder {
+	
+	private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$.*");
+	
+	private final BCryptPasswordEncoder delegate;
+	private final int strength;
+	private final ThreadPoolExecutor executor;
+	private final Duration timeout;
+	
+	public BoundedPasswordEncoder(int strength, int poolSize, int queueCapacity, Duration timeout) {
+		this.delegate = new BCryptPasswordEncoder(strength);
+		this.strength = strength;
+		this.timeout = timeout;
+		this.executor = new ThreadPoolExecutor(
+				poolSize,
+				poolSize,
+				0L,
+				TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				new CustomizableThreadFactory("password-hashing-")
+		);
+	}
+	
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return execute(() -> delegate.encode(rawPassword));
+	}
+	
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return execute(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+	
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		if (encodedPassword == null) {
+			return false;
+		}
+		Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+		return matcher.matches() && Integer.parseInt(matcher.group(1)) != strength;
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+	private <T> T execute(Callable<T> task) {
+		Future<T> future;
+		try {
+			future = executor.submit(task);
+		} catch (RejectedExecutionException e) {
+			throw new PasswordHashingUnavailableException("Too many password checks in progress, try again later");
+		}
+		try {
+			return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw new PasswordHashingUnavailableException("The password check timed out, try again later");
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new PasswordHashingUnavailableException("The password check was interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new PasswordHashingUnavailableException("The password check failed", e.getCause());
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.devskills.book.security;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 import org.springframework.lang.NonNull;
@@ -12,6 +13,9 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.devskills.book.role.Role;
+import com.devskills.book.user.User;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +29,10 @@ public class JwtFilter extends OncePerRequestFilter {
 	private final JwtService jwtService;
 	
 	private final UserDetailsService userDetailsService;
+	
+	private final UserStatusCache userStatusCache;
+	
+	private final TokenRevocationService tokenRevocationService;
 
 	@Override
 	protected void doFilterInternal(
@@ -46,13 +54,19 @@ public class JwtFilter extends OncePerRequestFilter {
 		}
 		
 		jwt = authHeader.substring(7);
-		userEmail = jwtService.extractUsername(jwt);
-		if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-			UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-			if (jwtService.isTokenValid(jwt, userDetails)) {
+		final VerifiedToken token = jwtService.verify(jwt);
+		userEmail = token.subject();
+		if (userEmail != null
+				&& SecurityContextHolder.getContext().getAuthentication() == null
+				&& !tokenRevocationService.isRevoked(token)) {
+			UserDetails userDetails = resolveUser(token);
+			if (userDetails != null
+					&& userDetails.isEnabled()
+					&& userDetails.isAccountNonLocked()
+					&& jwtService.isTokenValid(token, userDetails)) {
 				UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
 						userDetails,
-						null,
+						token,
 						userDetails.getAuthorities()
 				);
 				authToken.setDetails(
@@ -65,4 +79,27 @@ public class JwtFilter extends OncePerRequestFilter {
 
 	}
 
+	private UserDetails resolveUser(VerifiedToken token) {
+		if (token.userId() == null) {
+			return userDetailsService.loadUserByUsername(token.subject());
+		}
+		UserStatus status = userStatusCache.find(token.subject()).orElse(null);
+		if (status == null || !status.id().equals(token.userId())) {
+			return null;
+		}
+		List<Role> roles = token.authorities()
+				.stream()
+				.map(authority -> Role.builder().name(authority).build())
+				.toList();
+		return User.builder()
+				.id(token.userId())
+				.email(token.subject())
+				.firstname(token.firstname())
+				.lastname(token.lastname())
+				.enabled(status.enabled())
+				.accountLocked(status.accountLocked())
+				.roles(roles)
+				.build();
+	}
+
 }
@@ -1,9 +1,17 @@
 package com.devskills.book.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
@@ -12,7 +20,12 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -20,30 +33,38 @@ import io.jsonwebtoken.security.Keys;
 @Service
 public class JwtService {
 	
-	@Value("${application.security.jwt.expiration}")
-	private long jwtExpiration;
-	
-	@Value("${application.security.jwt.secret-key}")
-	private String secretKey; 
+	private final long jwtExpiration;
+	private final SecretKey signInKey;
+	private final JwtParser parser;
+	private final Cache<String, VerifiedToken> verifiedTokens;
 	
-	public String extractUsername(String token) {
-		return extractClaim(token, Claims::getSubject);
-	}
-
-	private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-		final Claims claims = extractAllClaims(token);
-		return claimResolver.apply(claims);
+	public JwtService(
+			@Value("${application.security.jwt.expiration}") long jwtExpiration,
+			@Value("${application.security.jwt.secret-key}") String secretKey,
+			@Value("${application.security.jwt.verified-cache.max-entries}") long verifiedCacheMaxEntries
+	) {
+		this.jwtExpiration = jwtExpiration;
+		this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+		this.parser = Jwts.parser()
+				.verifyWith(signInKey)
+				.build();
+		this.verifiedTokens = Caffeine.newBuilder()
+				.maximumSize(verifiedCacheMaxEntries)
+				.expireAfter(new TokenExpiry())
+				.build();
 	}
-
-	private Claims extractAllClaims(String token) {
-		return Jwts
-				.parser()
-				.verifyWith(getSignInKey())
-				.build()
-				.parseSignedClaims(token)
-				.getPayload();
+	
+	public VerifiedToken verify(String token) {
+		String digest = digest(token);
+		VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+		if (cached != null && !cached.isExpired()) {
+			return cached;
+		}
+		VerifiedToken verified = toVerifiedToken(parser.parseSignedClaims(token).getPayload());
+		verifiedTokens.put(digest, verified);
+		return verified;
 	}
-
+	
 	public String generateToken(UserDetails userDetails) {
 		return generateToken(new HashMap<>(), userDetails);
 	}
@@ -64,30 +85,58 @@ public class JwtService {
 		return Jwts
 				.builder()
 				.claims(extraClaims)
+				.id(UUID.randomUUID().toString())
 				.subject(userDetails.getUsername())
 				.issuedAt(new Date(System.currentTimeMillis()))
 				.expiration(new Date(System.currentTimeMillis() + jwtExpiration))
 				.claim("authorities", authorities)
-				.signWith(getSignInKey())
+				.signWith(signInKey)
 				.compact();
 	}
 	
-	public boolean isTokenValid(String token, UserDetails userDetails) {
-		final String username = extractUsername(token);
-		return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+	public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+		return token.subject().equals(userDetails.getUsername()) && !token.isExpired();
 	}
 	
-	private boolean isTokenExpired(String token) {
-		return extractExpiration(token).before(new Date());
+	private VerifiedToken toVerifiedToken(Claims claims) {
+		Collection<?> authorities = claims.get("authorities", Collection.class);
+		return new VerifiedToken(
+				claims.getId(),
+				claims.getSubject(),
+				claims.get("id", Integer.class),
+				claims.get("firstname", String.class),
+				claims.get("lastname", String.class),
+				authorities == null ? List.of() : authorities.stream().map(String::valueOf).toList(),
+				claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+				claims.getExpiration().toInstant()
+		);
 	}
-
-	private Date extractExpiration(String token) {
-		return extractClaim(token, Claims::getExpiration);
+	
+	private String digest(String token) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
 	}
-
-	private SecretKey getSignInKey() {
-		byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-		return Keys.hmacShaKeyFor(keyBytes);
+	
+	private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+		
+		@Override
+		public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+			return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+		}
+		
+		@Override
+		public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, token, currentTime);
+		}
+		
+		@Override
+		public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
 	}
 
 }
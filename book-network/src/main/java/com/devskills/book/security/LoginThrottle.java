@@ -0,0 +1,89 @@
+package com.devskills.book.security;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.devskills.book.exception.TooManyLoginAttemptsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Component
+public class LoginThrottle {
+	
+	private final Cache<String, AtomicInteger> accountFailures;
+	private final Cache<String, AtomicInteger> addressFailures;
+	private final int maxAccountFailures;
+	private final int maxAddressFailures;
+	private final Duration window;
+	
+	public LoginThrottle(
+			@Value("${application.security.login-throttle.window}") Duration window,
+			@Value("${application.security.login-throttle.max-account-failures}") int maxAccountFailures,
+			@Value("${application.security.login-throttle.max-address-failures}") int maxAddressFailures,
+			@Value("${application.security.login-throttle.max-entries}") long maxEntries
+	) {
+		this.window = window;
+		this.maxAccountFailures = maxAccountFailures;
+		this.maxAddressFailures = maxAddressFailures;
+		this.accountFailures = Caffeine.newBuilder()
+				.expireAfterWrite(window)
+				.maximumSize(maxEntries)
+				.build();
+		this.addressFailures = Caffeine.newBuilder()
+				.expireAfterWrite(window)
+				.maximumSize(maxEntries)
+				.build();
+	}
+	
+	public void reserve(String email, String address) {
+		String accountKey = accountKey(email);
+		if (increment(accountFailures, accountKey) > maxAccountFailures) {
+			decrement(accountFailures, accountKey);
+			throw new TooManyLoginAttemptsException("Too many failed login attempts, try again later", window);
+		}
+		if (increment(addressFailures, address) > maxAddressFailures) {
+			decrement(addressFailures, address);
+			decrement(accountFailures, accountKey);
+			throw new TooManyLoginAttemptsException("Too many failed login attempts, try again later", window);
+		}
+	}
+	
+	public void release(String email, String address) {
+		decrement(accountFailures, accountKey(email));
+		decrement(addressFailures, address);
+	}
+	
+	public void recordSuccess(String email, String address) {
+		String key = accountKey(email);
+		if (key != null) {
+			accountFailures.invalidate(key);
+		}
+		decrement(addressFailures, address);
+	}
+	
+	private int increment(Cache<String, AtomicInteger> counters, String key) {
+		if (key == null) {
+			return 0;
+		}
+		return counters.get(key, k -> new AtomicInteger()).incrementAndGet();
+	}
+	
+	private void decrement(Cache<String, AtomicInteger> counters, String key) {
+		if (key == null) {
+			return;
+		}
+		AtomicInteger counter = counters.getIfPresent(key);
+		if (counter != null) {
+			counter.updateAndGet(count -> Math.max(0, count - 1));
+		}
+	}
+	
+	private String accountKey(String email) {
+		return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.devskills.book.security;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.devskills.book.handler.ExceptionResponse;
+import com.devskills.book.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import static com.devskills.book.handler.BusinessErrorCodes.RATE_LIMIT_EXCEEDED;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Service
+public class RateLimitFilter extends OncePerRequestFilter {
+	
+	private final ObjectMapper objectMapper;
+	private final boolean enabled;
+	private final List<RouteLimit> routes = new ArrayList<>();
+	private final RouteLimit defaultLimit;
+	private final Cache<BucketKey, AtomicLong> buckets;
+	
+	public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+		this.enabled = properties.enabled();
+		for (RateLimitProperties.Route route : properties.routes()) {
+			routes.add(RouteLimit.of(
+					routes.size(),
+					route.method(),
+					PathPatternParser.defaultInstance.parse(route.pattern()),
+					route.capacity(),
+					route.refillPeriod().toNanos()
+			));
+		}
+		RateLimitProperties.Limit limit = properties.defaultLimit();
+		this.defaultLimit = limit == null || limit.capacity() <= 0
+				? null
+				: RouteLimit.of(-1, null, null, limit.capacity(), limit.refillPeriod().toNanos());
+		this.buckets = Caffeine.newBuilder()
+				.expireAfterAccess(properties.idleTimeout())
+				.maximumSize(properties.maxBuckets())
+				.build();
+	}
+
+	@Override
+	protected void doFilterInternal(
+			@NonNull HttpServletRequest request,
+			@NonNull HttpServletResponse response,
+			@NonNull FilterChain filterChain
+	) throws ServletException, IOException {
+		RouteLimit limit = enabled ? resolve(request) : null;
+		if (limit == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		AtomicLong bucket = buckets.get(
+				new BucketKey(limit.index(), clientKey(request)),
+				key -> new AtomicLong(System.nanoTime())
+		);
+		long waitNanos = limit.tryAcquire(bucket);
+		if (waitNanos > 0) {
+			reject(response, waitNanos);
+			return;
+		}
+		filterChain.doFilter(request, response);
+	}
+	
+	private RouteLimit resolve(HttpServletRequest request) {
+		PathContainer path = PathContainer.parsePath(request.getServletPath());
+		for (RouteLimit route : routes) {
+			if (route.matches(request.getMethod(), path)) {
+				return route;
+			}
+		}
+		return defaultLimit;
+	}
+	
+	private String clientKey(HttpServletRequest request) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+			return "user:" + user.getId();
+		}
+		return "ip:" + request.getRemoteAddr();
+	}
+	
+	private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+		long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(RETRY_AFTER, String.valueOf(retryAfter));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(
+				response.getOutputStream(),
+				ExceptionResponse.builder()
+					.businessErrorCode(RATE_LIMIT_EXCEEDED.getCode())
+					.businessErrorDescription(RATE_LIMIT_EXCEEDED.getDescription())
+					.error("Rate limit exceeded, retry in " + retryAfter + " seconds")
+					.build()
+		);
+	}
+	
+	private record BucketKey(int route, String client) {
+	}
+	
+	private record RouteLimit(
+			int index,
+			String method,
+			PathPattern pattern,
+			long interval,
+			long burst
+	) {
+		
+		static RouteLimit of(int index, String method, PathPattern pattern, long capacity, long refillPeriod) {
+			long interval = Math.max(1, refillPeriod / capacity);
+			return new RouteLimit(index, method, pattern, interval, interval * capacity);
+		}
+		
+		boolean matches(String requestMethod, PathContainer path) {
+			return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+		}
+		
+		long tryAcquire(AtomicLong bucket) {
+			long now = System.nanoTime();
+			while (true) {
+				long theoreticalArrival = bucket.get();
+				long next = (theoreticalArrival - now > 0 ? theoreticalArrival : now) + interval;
+				long excess = next - now - burst;
+				if (excess > 0) {
+					return excess;
+				}
+				if (bucket.compareAndSet(theoreticalArrival, next)) {
+					return 0;
+				}
+			}
+		}
+	}
+
+}
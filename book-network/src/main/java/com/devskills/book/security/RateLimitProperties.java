@@ -0,0 +1,35 @@
+package com.devskills.book.security;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "application.security.rate-limit")
+public record RateLimitProperties(
+		boolean enabled,
+		Duration idleTimeout,
+		long maxBuckets,
+		Limit defaultLimit,
+		List<Route> routes
+) {
+	
+	public RateLimitProperties {
+		routes = routes == null ? List.of() : List.copyOf(routes);
+	}
+	
+	public record Limit(
+			long capacity,
+			Duration refillPeriod
+	) {
+	}
+	
+	public record Route(
+			String method,
+			String pattern,
+			long capacity,
+			Duration refillPeriod
+	) {
+	}
+
+}
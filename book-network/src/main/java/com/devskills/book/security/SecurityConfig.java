@@ -1,5 +1,6 @@
 package com.devskills.book.security;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -18,9 +19,11 @@ import lombok.RequiredArgsConstructor;
 @EnableWebSecurity
 @RequiredArgsConstructor
 @EnableMethodSecurity(securedEnabled = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 	
 	private final JwtFilter jwtAuthFilter;
+	private final RateLimitFilter rateLimitFilter;
 	private final AuthenticationProvider authenticationPrivider;
 
 	@Bean
@@ -49,7 +52,8 @@ public class SecurityConfig {
 					.sessionCreationPolicy(STATELESS)
 			)
 			.authenticationProvider(authenticationPrivider)
-			.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+			.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+			.addFilterAfter(rateLimitFilter, JwtFilter.class);
 		return http.build();
 	}
 
@@ -0,0 +1,47 @@
+package com.devskills.book.security;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(indexes = {
+		@Index(name = "idx_token_revocation_token_id", columnList = "tokenId"),
+		@Index(name = "idx_token_revocation_user_id", columnList = "userId"),
+		@Index(name = "idx_token_revocation_created_at", columnList = "createdAt")
+})
+public class TokenRevocation {
+	
+	@Id
+	@GeneratedValue
+	private Long id;
+	
+	private String tokenId;
+	
+	@Column(nullable = false)
+	private Integer userId;
+	
+	private LocalDateTime notBefore;
+	
+	@Column(nullable = false)
+	private LocalDateTime expiresAt;
+	
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,33 @@
+package com.devskills.book.security;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+	
+	List<TokenRevocation> findByExpiresAtAfter(LocalDateTime now);
+	
+	List<TokenRevocation> findByCreatedAtGreaterThanEqual(LocalDateTime since);
+	
+	boolean existsByTokenId(String tokenId);
+	
+	@Query("""
+			SELECT COUNT(revocation) > 0
+			FROM TokenRevocation revocation
+			WHERE revocation.tokenId = :tokenId
+			OR (revocation.userId = :userId AND revocation.notBefore > :issuedAt)
+			""")
+	boolean isRevoked(String tokenId, Integer userId, LocalDateTime issuedAt);
+	
+	@Modifying
+	@Query("""
+			DELETE FROM TokenRevocation revocation
+			WHERE revocation.expiresAt < :now
+			""")
+	int deleteExpired(LocalDateTime now);
+
+}
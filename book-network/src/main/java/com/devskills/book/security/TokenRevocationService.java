@@ -0,0 +1,167 @@
+package com.devskills.book.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devskills.book.exception.OperationNotPermittedException;
+import com.devskills.book.user.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class TokenRevocationService {
+	
+	private final TokenRevocationRepository tokenRevocationRepository;
+	private final long jwtExpiration;
+	private final int expectedRevocations;
+	private final double falsePositiveRate;
+	private final Duration refreshInterval;
+	private final Cache<String, Boolean> confirmations;
+	private volatile BloomFilter revokedTokenIds;
+	private volatile Map<Integer, Instant> cutoffs;
+	private volatile LocalDateTime watermark;
+	private volatile boolean loaded;
+	
+	public TokenRevocationService(
+			TokenRevocationRepository tokenRevocationRepository,
+			@Value("${application.security.jwt.expiration}") long jwtExpiration,
+			@Value("${application.security.revocation.expected-revocations}") int expectedRevocations,
+			@Value("${application.security.revocation.false-positive-rate}") double falsePositiveRate,
+			@Value("${application.security.revocation.refresh-interval}") Duration refreshInterval,
+			@Value("${application.security.revocation.confirmation-cache-size}") long confirmationCacheSize
+	) {
+		this.tokenRevocationRepository = tokenRevocationRepository;
+		this.jwtExpiration = jwtExpiration;
+		this.expectedRevocations = expectedRevocations;
+		this.falsePositiveRate = falsePositiveRate;
+		this.refreshInterval = refreshInterval;
+		this.confirmations = Caffeine.newBuilder()
+				.maximumSize(confirmationCacheSize)
+				.expireAfterWrite(Duration.ofMillis(jwtExpiration))
+				.build();
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		rebuild();
+	}
+	
+	@Scheduled(fixedDelayString = "${application.security.revocation.refresh-interval}")
+	public void refresh() {
+		if (!loaded) {
+			return;
+		}
+		if (revokedTokenIds.isSaturated()) {
+			rebuild();
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		tokenRevocationRepository.findByCreatedAtGreaterThanEqual(watermark.minus(refreshInterval))
+				.forEach(this::apply);
+		watermark = now;
+	}
+	
+	@Transactional
+	@Scheduled(cron = "${application.security.revocation.purge-cron}")
+	public void purge() {
+		int deleted = tokenRevocationRepository.deleteExpired(LocalDateTime.now());
+		rebuild();
+		log.info("Token revocations: {} expired entries purged, {} revoked tokens tracked", deleted, revokedTokenIds.size());
+	}
+	
+	public boolean isRevoked(VerifiedToken token) {
+		if (!loaded) {
+			return tokenRevocationRepository.isRevoked(token.id(), token.userId(), toLocalDateTime(token.issuedAt()));
+		}
+		if (token.userId() != null && token.issuedAt() != null) {
+			Instant cutoff = cutoffs.get(token.userId());
+			if (cutoff != null && token.issuedAt().isBefore(cutoff)) {
+				return true;
+			}
+		}
+		return token.id() != null
+				&& revokedTokenIds.mightContain(token.id())
+				&& confirmations.get(token.id(), tokenRevocationRepository::existsByTokenId);
+	}
+	
+	public void revoke(Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		if (!(connectedUser.getCredentials() instanceof VerifiedToken token) || token.id() == null) {
+			throw new OperationNotPermittedException("This session cannot be revoked on its own, revoke all sessions instead");
+		}
+		TokenRevocation revocation = TokenRevocation.builder()
+				.tokenId(token.id())
+				.userId(user.getId())
+				.expiresAt(toLocalDateTime(token.expiresAt()))
+				.createdAt(LocalDateTime.now())
+				.build();
+		apply(tokenRevocationRepository.save(revocation));
+	}
+	
+	public void revokeAll(Authentication connectedUser) {
+		User user = (User) connectedUser.getPrincipal();
+		Instant cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+		TokenRevocation revocation = TokenRevocation.builder()
+				.userId(user.getId())
+				.notBefore(toLocalDateTime(cutoff))
+				.expiresAt(toLocalDateTime(cutoff.plusMillis(jwtExpiration)))
+				.createdAt(LocalDateTime.now())
+				.build();
+		apply(tokenRevocationRepository.save(revocation));
+	}
+	
+	private synchronized void rebuild() {
+		LocalDateTime now = LocalDateTime.now();
+		List<TokenRevocation> active = tokenRevocationRepository.findByExpiresAtAfter(now);
+		BloomFilter filter = new BloomFilter(Math.max(expectedRevocations, active.size() * 2), falsePositiveRate);
+		Map<Integer, Instant> userCutoffs = new ConcurrentHashMap<>();
+		active.forEach(revocation -> apply(revocation, filter, userCutoffs));
+		revokedTokenIds = filter;
+		cutoffs = userCutoffs;
+		confirmations.invalidateAll();
+		watermark = now;
+		loaded = true;
+	}
+	
+	private synchronized void apply(TokenRevocation revocation) {
+		if (!loaded) {
+			return;
+		}
+		apply(revocation, revokedTokenIds, cutoffs);
+		if (revocation.getTokenId() != null) {
+			confirmations.invalidate(revocation.getTokenId());
+		}
+	}
+	
+	private void apply(TokenRevocation revocation, BloomFilter filter, Map<Integer, Instant> userCutoffs) {
+		if (revocation.getTokenId() != null) {
+			filter.put(revocation.getTokenId());
+		}
+		if (revocation.getNotBefore() != null) {
+			Instant cutoff = revocation.getNotBefore().atZone(ZoneId.systemDefault()).toInstant();
+			userCutoffs.merge(revocation.getUserId(), cutoff, (current, next) -> current.isAfter(next) ? current : next);
+		}
+	}
+	
+	private LocalDateTime toLocalDateTime(Instant instant) {
+		return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+	}
+
+}
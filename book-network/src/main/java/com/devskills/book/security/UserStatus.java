@@ -0,0 +1,8 @@
+package com.devskills.book.security;
+
+public record UserStatus(
+		Integer id,
+		boolean enabled,
+		boolean accountLocked
+) {
+}
@@ -0,0 +1,45 @@
+package com.devskills.book.security;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.devskills.book.user.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Component
+public class UserStatusCache {
+	
+	private final UserRepository userRepository;
+	private final Cache<String, Optional<UserStatus>> statuses;
+	
+	public UserStatusCache(
+			UserRepository userRepository,
+			@Value("${application.security.user-cache.ttl}") Duration ttl,
+			@Value("${application.security.user-cache.max-entries}") long maxEntries
+	) {
+		this.userRepository = userRepository;
+		this.statuses = Caffeine.newBuilder()
+				.expireAfterWrite(ttl)
+				.maximumSize(maxEntries)
+				.build();
+	}
+	
+	public Optional<UserStatus> find(String email) {
+		return statuses.get(email, this::load);
+	}
+	
+	public void invalidate(String email) {
+		if (email != null) {
+			statuses.invalidate(email);
+		}
+	}
+	
+	private Optional<UserStatus> load(String email) {
+		return userRepository.findStatusByEmail(email);
+	}
+
+}
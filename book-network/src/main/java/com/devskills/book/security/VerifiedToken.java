@@ -0,0 +1,25 @@
+package com.devskills.book.security;
+
+import java.time.Instant;
+import java.util.List;
+
+public record VerifiedToken(
+		String id,
+		String subject,
+		Integer userId,
+		String firstname,
+		String lastname,
+		List<String> authorities,
+		Instant issuedAt,
+		Instant expiresAt
+) {
+	
+	public VerifiedToken {
+		authorities = authorities == null ? List.of() : List.copyOf(authorities);
+	}
+	
+	public boolean isExpired() {
+		return !expiresAt.isAfter(Instant.now());
+	}
+
+}
@@ -2,11 +2,25 @@ package com.devskills.book.user;
 
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import com.devskills.book.security.UserStatus;
+
+import jakarta.persistence.QueryHint;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 	
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<User> findByEmail(String email);
+	
+	@Query("""
+			SELECT new com.devskills.book.security.UserStatus(account.id, account.enabled, account.accountLocked)
+			FROM User account
+			WHERE account.email = :email
+			""")
+	Optional<UserStatus> findStatusByEmail(String email);
 
 }
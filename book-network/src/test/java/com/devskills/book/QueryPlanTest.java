@@ -0,0 +1,143 @@
+package com.devskills.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.devskills.book.book.BookCatalogFilter;
+import com.devskills.book.book.BookRepository;
+import com.devskills.book.book.BookSearchHit;
+import com.devskills.book.book.BookSort;
+import com.devskills.book.book.BookSpecification;
+import com.devskills.book.common.RankCursor;
+import com.devskills.book.history.BookTransactionHistoryRepository;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.devskills.book.QueryPlanTest$CapturedStatements")
+@Transactional
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+	
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	private BookRepository bookRepository;
+	
+	@Autowired
+	private BookTransactionHistoryRepository transactionHistoryRepository;
+	
+	@Test
+	void returnedBooksKeysetSeeksTheOwnerIndex() {
+		transactionHistoryRepository.findReturnedBooksBefore(1, LocalDateTime.now(), 100, Limit.of(21));
+		String plan = explainCaptured();
+		
+		assertThat(plan).contains("Index Scan Backward").doesNotContain("Sort", "Seq Scan");
+	}
+	
+	@Test
+	void fullTextSearchUsesTheSearchVectorIndex() {
+		String plan = explain("""
+				SELECT id FROM book
+				WHERE search_vector @@ websearch_to_tsquery('english', 'tolkien')
+				""");
+		
+		assertThat(plan).contains("idx_book_search_vector").doesNotContain("Seq Scan");
+	}
+	
+	@Test
+	void searchQueriesReferenceTheUnmappedSearchVectorColumn() {
+		List<BookSearchHit> firstPage = bookRepository.search("tolkien", Specification.where(null), null, 10);
+		List<BookSearchHit> nextPage = bookRepository.search("tolkien", Specification.where(null), new RankCursor(0.5f, 100), 10);
+		
+		assertThat(firstPage).isEmpty();
+		assertThat(nextPage).isEmpty();
+	}
+	
+	@Test
+	void catalogSortsReadTheirIndexInOrder() {
+		for (BookSort sort : BookSort.values()) {
+			String plan = explainCatalog(new BookCatalogFilter(null, null, null, null), sort);
+			
+			assertThat(plan).as(sort.name()).contains("Index Scan").doesNotContain("Sort", "Seq Scan");
+		}
+	}
+	
+	@Test
+	void catalogFiltersAreServedByAnIndex() {
+		assertThat(explainCatalog(new BookCatalogFilter("Frank Herbert", null, null, null), BookSort.TITLE))
+				.contains("Index Cond: ((author_name)::text = $")
+				.doesNotContain("Sort", "Seq Scan");
+		assertThat(explainCatalog(new BookCatalogFilter(null, "9780441013593", null, null), BookSort.RECENT))
+				.contains("Index Cond: ((isbn)::text = $")
+				.doesNotContain("Seq Scan");
+		assertThat(explainCatalog(new BookCatalogFilter(null, null, 4.0, null), BookSort.RATING))
+				.contains("Index Cond: (rate >= $")
+				.doesNotContain("Sort", "Seq Scan");
+		assertThat(explainCatalog(new BookCatalogFilter(null, null, null, true), BookSort.RECENT))
+				.contains("Anti Join")
+				.doesNotContain("Seq Scan");
+	}
+	
+	private String explainCatalog(BookCatalogFilter filter, BookSort sort) {
+		bookRepository.findSummarySlice(BookSpecification.catalogFor(1, filter), PageRequest.of(0, 20, sort.toSort()));
+		return explainCaptured();
+	}
+	
+	private String explainCaptured() {
+		String sql = CapturedStatements.LAST_STATEMENT.get();
+		StringBuilder numbered = new StringBuilder();
+		int parameter = 0;
+		for (char c : sql.toCharArray()) {
+			if (c == '?') {
+				numbered.append('$').append(++parameter);
+			} else {
+				numbered.append(c);
+			}
+		}
+		jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+		jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+		jdbcTemplate.execute("""
+				CREATE OR REPLACE FUNCTION pg_temp.generic_plan(query text) RETURNS SETOF text LANGUAGE plpgsql AS $$
+				BEGIN
+					RETURN QUERY EXECUTE 'EXPLAIN (GENERIC_PLAN) ' || query;
+				END
+				$$""");
+		return String.join("\n", jdbcTemplate.queryForList("SELECT pg_temp.generic_plan(?)", String.class, numbered.toString()));
+	}
+	
+	private String explain(String sql) {
+		jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+		return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+	}
+	
+	public static class CapturedStatements implements StatementInspector {
+		
+		private static final ThreadLocal<String> LAST_STATEMENT = new ThreadLocal<>();
+		
+		@Override
+		public String inspect(String sql) {
+			LAST_STATEMENT.set(sql);
+			return sql;
+		}
+	}
+
+}
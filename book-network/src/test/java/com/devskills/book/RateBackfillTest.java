@@ -0,0 +1,83 @@
+package com.devskills.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.devskills.book.book.Book;
+import com.devskills.book.book.BookRateReconciler;
+import com.devskills.book.book.BookRepository;
+import com.devskills.book.feedback.Feedback;
+import com.devskills.book.feedback.FeedbackRepository;
+import com.devskills.book.user.User;
+import com.devskills.book.user.UserRepository;
+
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class RateBackfillTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private FeedbackRepository feedbackRepository;
+
+	@Autowired
+	private BookRateReconciler rateReconciler;
+
+	@Test
+	void startupBackfillFillsBooksWhoseFeedbackWasNeverAggregated() {
+		Integer rated = transactionTemplate.execute(status -> {
+			User owner = userRepository.save(User.builder()
+					.firstname("Ada")
+					.lastname("Lovelace")
+					.email(UUID.randomUUID() + "@mail.com")
+					.password("secret")
+					.build());
+			Book book = bookRepository.save(Book.builder()
+					.title("Notes")
+					.authorName("Ada Lovelace")
+					.isbn("9780000000002")
+					.synopsis("Notes")
+					.owner(owner)
+					.createdBy(owner.getId())
+					.build());
+			for (double note : new double[] {5, 4, 4}) {
+				feedbackRepository.save(Feedback.builder().note(note).comment("Good").book(book).createdBy(owner.getId()).build());
+			}
+			return book.getId();
+		});
+		jdbcTemplate.update("UPDATE book SET rate_sum = 0, rate_count = 0, rate = 0 WHERE id = ?", rated);
+
+		rateReconciler.backfill();
+
+		Book book = bookRepository.findById(rated).orElseThrow();
+		assertThat(book.getRateSum()).isEqualTo(13);
+		assertThat(book.getRateCount()).isEqualTo(3);
+		assertThat(book.getRate()).isEqualTo(4.3);
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.devskills.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.devskills.book.book.Book;
+import com.devskills.book.book.BookRepository;
+import com.devskills.book.user.User;
+import com.devskills.book.user.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class SecondLevelCacheTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	private Statistics statistics;
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		owner = transactionTemplate.execute(status -> userRepository.save(User.builder()
+				.firstname("Ada")
+				.lastname("Lovelace")
+				.email(UUID.randomUUID() + "@mail.com")
+				.password("secret")
+				.enabled(true)
+				.build()));
+	}
+
+	@Test
+	void cachedUserLookupSeesCommittedUpdates() {
+		findUserByEmail();
+		long hits = statistics.getQueryCacheHitCount();
+		assertThat(findUserByEmail().getLastname()).isEqualTo("Lovelace");
+		assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(hits);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			User user = userRepository.findById(owner.getId()).orElseThrow();
+			user.setLastname("King");
+		});
+
+		assertThat(findUserByEmail().getLastname()).isEqualTo("King");
+	}
+
+	@Test
+	void bulkUpdateEvictsCachedBooks() {
+		Integer bookId = transactionTemplate.execute(status -> bookRepository.save(Book.builder()
+				.title("Notes on the Analytical Engine")
+				.authorName("Ada Lovelace")
+				.isbn("9780000000001")
+				.synopsis("Notes")
+				.bookCover("uploads/" + owner.getId() + "/cover.png")
+				.shareable(true)
+				.owner(owner)
+				.createdBy(owner.getId())
+				.build()).getId());
+		transactionTemplate.execute(status -> bookRepository.findById(bookId).orElseThrow());
+		assertThat(entityManagerFactory.getCache().contains(Book.class, bookId)).isTrue();
+
+		transactionTemplate.execute(status -> bookRepository.stripBookCoverPrefix("uploads/"));
+
+		assertThat(entityManagerFactory.getCache().contains(Book.class, bookId)).isFalse();
+		Book reloaded = transactionTemplate.execute(status -> bookRepository.findById(bookId).orElseThrow());
+		assertThat(reloaded.getBookCover()).isEqualTo(owner.getId() + "/cover.png");
+	}
+
+	private User findUserByEmail() {
+		return transactionTemplate.execute(status -> userRepository.findByEmail(owner.getEmail()).orElseThrow());
+	}
+
+}
@@ -0,0 +1,170 @@
+package com.devskills.book.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devskills.book.user.User;
+
+class BookCatalogSnapshotTest {
+
+	private static final Integer READER = 1;
+	private static final Integer OWNER = 2;
+	private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+	private BookRepository bookRepository;
+	private BookCatalogSnapshot catalogSnapshot;
+
+	@BeforeEach
+	void setUp() {
+		bookRepository = mock(BookRepository.class);
+		catalogSnapshot = new BookCatalogSnapshot(bookRepository);
+		ReflectionTestUtils.setField(catalogSnapshot, "enabled", true);
+	}
+
+	@Test
+	void pagesListTheNewestBooksOfOtherOwners() {
+		build(entry(10, 1, OWNER), entry(11, 2, READER), entry(12, 3, OWNER), entry(13, 4, OWNER));
+
+		Page<BookSummary> firstPage = page(READER, 0, 2);
+		Page<BookSummary> secondPage = page(READER, 1, 2);
+
+		assertThat(ids(firstPage)).containsExactly(13, 12);
+		assertThat(ids(secondPage)).containsExactly(10);
+		assertThat(firstPage.getTotalElements()).isEqualTo(3);
+	}
+
+	@Test
+	void indexPatchesUpdatesInPlaceAndMergesNewBooks() {
+		build(entry(10, 1, OWNER), entry(11, 2, OWNER), entry(12, 3, OWNER));
+
+		catalogSnapshot.index(book(13, 5, false));
+		catalogSnapshot.index(book(11, 2, true));
+		catalogSnapshot.updateRate(12, 4.5);
+		catalogSnapshot.updateRate(13, 3.5);
+
+		Page<BookSummary> page = page(READER, 0, 10);
+		assertThat(ids(page)).containsExactly(13, 12, 10);
+		assertThat(page.getContent()).extracting(BookSummary::rate).containsExactly(3.5, 4.5, 0.0);
+		assertThat(page.getTotalElements()).isEqualTo(3);
+	}
+
+	@Test
+	void manyChangesAreCompactedWithoutLosingOrder() {
+		build(IntStream.range(0, 100).mapToObj(i -> entry(i, i * 2, OWNER)).toArray(BookCatalogEntry[]::new));
+
+		for (int i = 0; i < 100; i += 2) {
+			catalogSnapshot.index(book(i, i * 2, true));
+		}
+		for (int i = 100; i < 400; i++) {
+			catalogSnapshot.index(book(i, i < 300 ? i * 2 - 199 : i * 2, false));
+		}
+
+		Page<BookSummary> page = page(READER, 0, 400);
+		assertThat(page.getTotalElements()).isEqualTo(350);
+		assertThat(page.getContent()).hasSize(350);
+		assertThat(page.getContent()).extracting(BookSummary::createdDate).isSortedAccordingTo((a, b) -> b.compareTo(a));
+		assertThat(ids(page)).doesNotContain(0, 2, 98).contains(1, 99, 100, 399);
+	}
+
+	@Test
+	void refreshRebuildsWhenAnotherNodeChangesTheCatalog() {
+		when(bookRepository.findCatalogWatermark()).thenReturn(START);
+		when(bookRepository.findCatalogChangesAfter(eq(START), any())).thenReturn(List.of());
+		build(entry(10, 1, OWNER));
+
+		catalogSnapshot.refreshIfStale();
+		verify(bookRepository, times(1)).streamCatalogEntries();
+
+		when(bookRepository.findCatalogChangesAfter(eq(START), any())).thenReturn(List.of(new BookCatalogChange(11, START.plusMinutes(2))));
+		when(bookRepository.streamCatalogEntries()).thenAnswer(invocation -> newestFirst(entry(10, 1, OWNER), entry(11, 2, OWNER)));
+		catalogSnapshot.refreshIfStale();
+
+		assertThat(ids(page(READER, 0, 10))).containsExactly(11, 10);
+	}
+
+	@Test
+	void refreshAdvancesTheWatermarkPastLocalWrites() {
+		when(bookRepository.findCatalogWatermark()).thenReturn(START);
+		build(entry(10, 1, OWNER));
+
+		LocalDateTime modifiedAt = LocalDateTime.now();
+		catalogSnapshot.index(book(11, 2, false));
+		catalogSnapshot.updateRate(10, 4.0);
+		when(bookRepository.findCatalogChangesAfter(eq(START), any()))
+				.thenReturn(List.of(new BookCatalogChange(11, modifiedAt), new BookCatalogChange(10, modifiedAt)));
+		catalogSnapshot.refreshIfStale();
+
+		verify(bookRepository, times(1)).streamCatalogEntries();
+		assertThat(ids(page(READER, 0, 10))).containsExactly(11, 10);
+
+		when(bookRepository.findCatalogChangesAfter(eq(modifiedAt), any()))
+				.thenReturn(List.of(new BookCatalogChange(10, LocalDateTime.now().plusMinutes(1))));
+		catalogSnapshot.refreshIfStale();
+
+		verify(bookRepository, times(2)).streamCatalogEntries();
+	}
+
+	@Test
+	void invalidatedSnapshotIsNotServedUntilRebuilt() {
+		build(entry(10, 1, OWNER));
+
+		catalogSnapshot.invalidate();
+
+		assertThat(catalogSnapshot.findPage(READER, 0, 10)).isEmpty();
+		catalogSnapshot.refreshIfStale();
+		assertThat(catalogSnapshot.findPage(READER, 0, 10)).isPresent();
+	}
+
+	private void build(BookCatalogEntry... entries) {
+		when(bookRepository.streamCatalogEntries()).thenAnswer(invocation -> newestFirst(entries));
+		catalogSnapshot.build();
+	}
+
+	private static Stream<BookCatalogEntry> newestFirst(BookCatalogEntry... entries) {
+		return Stream.of(entries).sorted(Comparator.comparing(BookCatalogEntry::createdDate).reversed());
+	}
+
+	private Page<BookSummary> page(Integer userId, int page, int size) {
+		return catalogSnapshot.findPage(userId, page, size).orElseThrow();
+	}
+
+	private static List<Integer> ids(Page<BookSummary> page) {
+		return page.getContent().stream()
+				.map(BookSummary::id)
+				.toList();
+	}
+
+	private static BookCatalogEntry entry(Integer id, int minutes, Integer ownerId) {
+		return new BookCatalogEntry(id, "Title " + id, "Author", "isbn-" + id, "Synopsis", "Owner", 0, null, START.plusMinutes(minutes), ownerId);
+	}
+
+	private static Book book(Integer id, int minutes, boolean archived) {
+		return Book.builder()
+				.id(id)
+				.title("Title " + id)
+				.authorName("Author")
+				.isbn("isbn-" + id)
+				.owner(User.builder().id(OWNER).firstname("Owner").lastname("Name").build())
+				.createdDate(START.plusMinutes(minutes))
+				.archived(archived)
+				.shareable(true)
+				.build();
+	}
+
+}
@@ -0,0 +1,182 @@
+package com.devskills.book.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devskills.book.history.BookOpenBorrow;
+import com.devskills.book.history.BookTransactionHistoryRepository;
+import com.devskills.book.user.User;
+
+class BookFacetIndexTest {
+
+	private static final Integer READER = 1;
+	private static final Integer OWNER = 2;
+	private static final BookCatalogFilter NO_FILTER = new BookCatalogFilter(null, null, null, null);
+
+	private BookRepository bookRepository;
+	private BookTransactionHistoryRepository transactionHistoryRepository;
+	private BookFacetIndex index;
+
+	@BeforeEach
+	void setUp() {
+		bookRepository = mock(BookRepository.class);
+		transactionHistoryRepository = mock(BookTransactionHistoryRepository.class);
+		index = new BookFacetIndex(bookRepository, transactionHistoryRepository);
+		ReflectionTestUtils.setField(index, "maxAuthors", 2);
+	}
+
+	@Test
+	void facetsCountOnlyDisplayableBooksOfOtherOwners() {
+		build(
+				List.of(
+						source(10, "Jane Austen", 4.2),
+						source(11, "Jane Austen", 3.0),
+						new BookFacetSource(12, "Jane Austen", "isbn-12", 5.0, READER, false, true),
+						new BookFacetSource(13, "Jane Austen", "isbn-13", 5.0, OWNER, true, true),
+						new BookFacetSource(14, "Jane Austen", "isbn-14", 5.0, OWNER, false, false)
+				),
+				List.of(new BookOpenBorrow(11, 100))
+		);
+
+		BookFacetsResponse response = index.facets(NO_FILTER, READER);
+
+		assertThat(response.getTotal()).isEqualTo(2);
+		assertThat(response.getLent()).isEqualTo(1);
+		assertThat(response.getAvailable()).isEqualTo(1);
+		assertThat(response.getAuthors()).containsExactly(Map.entry("Jane Austen", 2L));
+		assertThat(response.getRatings()).containsExactly(Map.entry(3, 1L), Map.entry(4, 1L));
+	}
+
+	@Test
+	void facetsApplyTheCatalogFilters() {
+		build(
+				List.of(
+						source(10, "Frank Herbert", 4.5),
+						source(11, "Frank Herbert", 2.0),
+						source(12, "Ursula K. Le Guin", 4.0)
+				),
+				List.of(new BookOpenBorrow(10, 100), new BookOpenBorrow(10, 101))
+		);
+
+		assertThat(index.facets(new BookCatalogFilter("Frank Herbert", null, null, null), READER).getTotal()).isEqualTo(2);
+		assertThat(index.facets(new BookCatalogFilter(null, "isbn-12", null, null), READER).getTotal()).isEqualTo(1);
+		assertThat(index.facets(new BookCatalogFilter(null, null, 4.0, null), READER).getTotal()).isEqualTo(2);
+		assertThat(index.facets(new BookCatalogFilter(null, null, null, true), READER).getTotal()).isEqualTo(2);
+		assertThat(index.facets(new BookCatalogFilter(null, null, null, false), READER).getTotal()).isEqualTo(1);
+	}
+
+	@Test
+	void facetsKeepOnlyTheMostFrequentAuthorsOfTheMatches() {
+		build(
+				List.of(
+						source(10, "Agatha Christie", 4.8),
+						source(11, "Agatha Christie", 4.8),
+						source(12, "Agatha Christie", 4.0),
+						source(13, "Dorothy L. Sayers", 4.8),
+						source(14, "Dorothy L. Sayers", 4.0),
+						source(15, "Arthur Conan Doyle", 4.0),
+						source(16, "Wilkie Collins", 4.0),
+						source(17, "Raymond Chandler", 4.0)
+				),
+				List.of()
+		);
+
+		assertThat(index.facets(NO_FILTER, READER).getAuthors())
+				.containsExactly(Map.entry("Agatha Christie", 3L), Map.entry("Dorothy L. Sayers", 2L));
+		assertThat(index.facets(new BookCatalogFilter(null, null, 4.5, null), READER).getAuthors())
+				.containsExactly(Map.entry("Agatha Christie", 2L), Map.entry("Dorothy L. Sayers", 1L));
+		assertThat(index.facets(NO_FILTER, OWNER).getAuthors()).isEmpty();
+	}
+
+	@Test
+	void facetsCountAuthorsFromTheAuthorBitmapsWhenMostBooksMatch() {
+		build(
+				IntStream.range(0, 30)
+						.mapToObj(i -> source(100 + i, i < 20 ? "Isaac Asimov" : i < 27 ? "Arthur C. Clarke" : "Author " + i, 4.0))
+						.toList(),
+				List.of()
+		);
+
+		assertThat(index.facets(NO_FILTER, READER).getAuthors())
+				.containsExactly(Map.entry("Isaac Asimov", 20L), Map.entry("Arthur C. Clarke", 7L));
+	}
+
+	@Test
+	void updatesMoveBooksBetweenFacets() {
+		build(List.of(source(10, "Herman Melville", 2.0)), List.of());
+
+		index.updateRate(10, 4.6);
+		index.borrowed(10, 100);
+		index.borrowed(10, 101);
+		index.returnApproved(10, 100);
+
+		BookFacetsResponse borrowed = index.facets(NO_FILTER, READER);
+		assertThat(borrowed.getRatings()).containsExactly(Map.entry(4, 1L));
+		assertThat(borrowed.getLent()).isEqualTo(1);
+
+		index.returnApproved(10, 101);
+		index.index(book(10, "Billy Budd", true));
+
+		assertThat(index.facets(NO_FILTER, READER).getTotal()).isZero();
+	}
+
+	@Test
+	void buildReplacesTheWholeIndex() {
+		build(List.of(source(10, "Henry David Thoreau", 4.0)), List.of(new BookOpenBorrow(10, 100)));
+
+		build(List.of(source(11, "Walt Whitman", 4.0)), List.of());
+
+		BookFacetsResponse response = index.facets(NO_FILTER, READER);
+		assertThat(response.getTotal()).isEqualTo(1);
+		assertThat(response.getLent()).isZero();
+		assertThat(response.getAuthors()).containsExactly(Map.entry("Walt Whitman", 1L));
+	}
+
+	@Test
+	void borrowsMadeDuringARebuildAreNotCountedTwice() {
+		build(List.of(source(10, "Mary Shelley", 4.0)), List.of());
+		when(bookRepository.streamFacetSources()).thenAnswer(invocation -> {
+			index.borrowed(10, 100);
+			index.borrowed(10, 101);
+			index.returnApproved(10, 100);
+			return Stream.of(source(10, "Mary Shelley", 4.0));
+		});
+		when(transactionHistoryRepository.streamOpenBorrows()).thenAnswer(invocation -> Stream.of(new BookOpenBorrow(10, 101)));
+
+		index.build();
+		index.returnApproved(10, 101);
+
+		assertThat(index.facets(NO_FILTER, READER).getLent()).isZero();
+	}
+
+	private void build(List<BookFacetSource> sources, List<BookOpenBorrow> openBorrows) {
+		when(bookRepository.streamFacetSources()).thenReturn(sources.stream());
+		when(transactionHistoryRepository.streamOpenBorrows()).thenReturn(openBorrows.stream());
+		index.build();
+	}
+
+	private static BookFacetSource source(Integer id, String authorName, double rate) {
+		return new BookFacetSource(id, authorName, "isbn-" + id, rate, OWNER, false, true);
+	}
+
+	private static Book book(Integer id, String authorName, boolean archived) {
+		return Book.builder()
+				.id(id)
+				.authorName(authorName)
+				.owner(User.builder().id(OWNER).build())
+				.archived(archived)
+				.shareable(true)
+				.build();
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.devskills.book.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devskills.book.exception.OperationNotPermittedException;
+import com.devskills.book.file.FileCache;
+import com.devskills.book.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+
+class BookImportServiceTest {
+
+	private EntityManager entityManager;
+	private Authentication connectedUser;
+	private BookImportService importService;
+	private final List<String> storedTitles = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		entityManager = mock(EntityManager.class);
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+			List<String> titles = new ArrayList<>();
+			doAnswer(persist -> {
+				Book book = persist.getArgument(0, Book.class);
+				if (book.getTitle().startsWith("Broken")) {
+					throw new PersistenceException("value too long");
+				}
+				titles.add(book.getTitle());
+				return null;
+			}).when(entityManager).persist(any(Book.class));
+			Object result = invocation.getArgument(0, TransactionCallback.class).doInTransaction(null);
+			storedTitles.addAll(titles);
+			return result;
+		});
+		connectedUser = mock(Authentication.class);
+		when(connectedUser.getPrincipal()).thenReturn(User.builder().id(1).build());
+		importService = new BookImportService(
+				entityManager,
+				transactionTemplate,
+				new ObjectMapper(),
+				Validation.buildDefaultValidatorFactory().getValidator(),
+				new BookMapper(mock(FileCache.class)),
+				mock(BookSuggestionIndex.class),
+				mock(BookFacetIndex.class),
+				mock(BookCatalogSnapshot.class)
+		);
+		ReflectionTestUtils.setField(importService, "batchSize", 3);
+		ReflectionTestUtils.setField(importService, "maxReportedErrors", 10);
+	}
+
+	@Test
+	void csvQuotedValuesMaySpanSeveralLines() throws IOException {
+		BookImportResponse response = importCsv("""
+				title,authorName,isbn,synopsis,shareable
+				Dune,Frank Herbert,9780441013593,"A desert planet,
+
+				and ""spice"\"",true
+				Emma,Jane Austen,9780141439587,Matchmaking,false
+				,Nobody,123,Missing title,true
+				""");
+
+		assertThat(response.getImported()).isEqualTo(2);
+		assertThat(storedTitles).containsExactly("Dune", "Emma");
+		assertThat(response.getErrors()).containsExactly(new BookImportError(6, Set.of("100")));
+	}
+
+	@Test
+	void csvUnterminatedQuoteRejectsTheLastRow() throws IOException {
+		BookImportResponse response = importCsv("""
+				title,authorName,isbn,synopsis
+				Emma,Jane Austen,9780141439587,Matchmaking
+				Dune,Frank Herbert,9780441013593,"A desert planet
+				""");
+
+		assertThat(response.getImported()).isEqualTo(1);
+		assertThat(response.getErrors()).containsExactly(new BookImportError(3, Set.of("The row could not be parsed")));
+	}
+
+	@Test
+	void csvHeaderMustNameTheRequiredColumns() {
+		assertThatThrownBy(() -> importCsv("title,authorName,isbn,shareable\n"))
+				.isInstanceOf(OperationNotPermittedException.class)
+				.hasMessage("The CSV header must contain the columns title,authorName,isbn,synopsis");
+	}
+
+	@Test
+	void aFailedBatchIsRetriedRowByRow() throws IOException {
+		BookImportResponse response = importCsv("""
+				title,authorName,isbn,synopsis
+				Emma,Jane Austen,9780141439587,Matchmaking
+				Broken Title,Someone,111,Too long
+				Persuasion,Jane Austen,9780141439686,Second chances
+				Dune,Frank Herbert,9780441013593,Spice
+				""");
+
+		assertThat(response.getImported()).isEqualTo(3);
+		assertThat(response.getFailed()).isEqualTo(1);
+		assertThat(storedTitles).containsExactly("Emma", "Persuasion", "Dune");
+		assertThat(response.getErrors()).containsExactly(new BookImportError(3, Set.of("The row could not be stored")));
+	}
+
+	private BookImportResponse importCsv(String content) throws IOException {
+		return importService.importBooks(
+				new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+				BookDataFormat.CSV,
+				connectedUser
+		);
+	}
+
+}
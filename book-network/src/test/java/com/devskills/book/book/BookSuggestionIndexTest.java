@@ -0,0 +1,145 @@
+package com.devskills.book.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devskills.book.user.User;
+
+class BookSuggestionIndexTest {
+
+	private static final Integer READER = 1;
+	private static final Integer OWNER = 2;
+
+	private BookRepository bookRepository;
+	private BookSuggestionIndex index;
+
+	@BeforeEach
+	void setUp() {
+		bookRepository = mock(BookRepository.class);
+		index = new BookSuggestionIndex(bookRepository);
+		ReflectionTestUtils.setField(index, "maxResults", 3);
+	}
+
+	@Test
+	void suggestMatchesWordStartsOfTitlesAndAuthors() {
+		build(
+				source(10, "The Lord of the Rings", "J.R.R. Tolkien", 4.5),
+				source(11, "The Hobbit", "J.R.R. Tolkien", 4.0),
+				source(12, "Lord Jim", "Joseph Conrad", 3.0)
+		);
+
+		assertThat(ids("lord", 10)).containsExactly(10, 12);
+		assertThat(ids("lord of", 10)).containsExactly(10);
+		assertThat(ids("tolk", 10)).containsExactly(10, 11);
+		assertThat(ids("the ho", 10)).containsExactly(11);
+		assertThat(ids("hobbit x", 10)).isEmpty();
+		assertThat(ids("ord", 10)).isEmpty();
+	}
+
+	@Test
+	void suggestReturnsTheBestRatedBooksFirstAndIsBounded() {
+		build(
+				source(10, "Dune", "Frank Herbert", 3.0),
+				source(11, "Dune Messiah", "Frank Herbert", 4.8),
+				source(12, "Children of Dune", "Frank Herbert", 4.1),
+				source(13, "God Emperor of Dune", "Frank Herbert", 2.0),
+				source(14, "Heretics of Dune", "Frank Herbert", 4.1)
+		);
+
+		assertThat(ids("dune", 10)).containsExactly(11, 14, 12);
+		assertThat(ids("dune", 2)).containsExactly(11, 14);
+		assertThat(ids("frank", 10)).containsExactly(11, 14, 12);
+	}
+
+	@Test
+	void suggestLooksPastTheTopBooksWhenTheyBelongToTheReader() {
+		build(
+				source(10, "Emma", "Jane Austen", 5.0, READER),
+				source(11, "Persuasion", "Jane Austen", 4.9, READER),
+				source(12, "Mansfield Park", "Jane Austen", 4.8, READER),
+				source(13, "Sense and Sensibility", "Jane Austen", 1.0)
+		);
+
+		assertThat(ids("austen", 10)).containsExactly(13);
+	}
+
+	@Test
+	void indexReplacesTheTermsOfAnUpdatedBookAndDropsArchivedBooks() {
+		build(
+				source(10, "Moby Dick", "Herman Melville", 4.0),
+				source(11, "Mobile Suit", "Yoshiyuki Tomino", 3.0)
+		);
+
+		index.index(book(10, "Billy Budd", "Herman Melville", false));
+		index.index(book(11, "Mobile Suit", "Yoshiyuki Tomino", true));
+
+		assertThat(ids("mob", 10)).isEmpty();
+		assertThat(ids("billy", 10)).containsExactly(10);
+		assertThat(ids("melville", 10)).containsExactly(10);
+	}
+
+	@Test
+	void removingATopBookRefillsTheRankingFromTheSubtree() {
+		build(
+				source(10, "Anna Karenina", "Leo Tolstoy", 5.0),
+				source(11, "Anna and the King", "Margaret Landon", 4.0),
+				source(12, "Anne of Green Gables", "L. M. Montgomery", 3.0),
+				source(13, "Annapurna", "Maurice Herzog", 2.0),
+				source(14, "Annals of the Former World", "John McPhee", 1.0)
+		);
+
+		index.index(book(10, "Anna Karenina", "Leo Tolstoy", true));
+		index.index(book(11, "Anna and the King", "Margaret Landon", true));
+
+		assertThat(ids("ann", 10)).containsExactly(12, 13, 14);
+	}
+
+	@Test
+	void buildReplacesTheWholeIndex() {
+		build(source(10, "Walden", "Henry David Thoreau", 4.0));
+
+		build(source(11, "Leaves of Grass", "Walt Whitman", 4.0));
+
+		assertThat(ids("walden", 10)).isEmpty();
+		assertThat(ids("wal", 10)).containsExactly(11);
+	}
+
+	private void build(BookSuggestionSource... sources) {
+		when(bookRepository.streamSuggestionSources()).thenReturn(Stream.of(sources));
+		index.build();
+	}
+
+	private List<Integer> ids(String prefix, int limit) {
+		return index.suggest(prefix, limit, READER).stream()
+				.map(BookSuggestion::id)
+				.toList();
+	}
+
+	private static BookSuggestionSource source(Integer id, String title, String authorName, double rate) {
+		return source(id, title, authorName, rate, OWNER);
+	}
+
+	private static BookSuggestionSource source(Integer id, String title, String authorName, double rate, Integer ownerId) {
+		return new BookSuggestionSource(id, title, authorName, ownerId, false, true, rate);
+	}
+
+	private static Book book(Integer id, String title, String authorName, boolean archived) {
+		return Book.builder()
+				.id(id)
+				.title(title)
+				.authorName(authorName)
+				.owner(User.builder().id(OWNER).build())
+				.archived(archived)
+				.shareable(true)
+				.build();
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.devskills.book.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.devskills.book.exception.OperationNotPermittedException;
+
+class CursorTest {
+
+	@Test
+	void decodeReturnsTheEncodedPosition() {
+		Cursor cursor = new Cursor(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000), 42);
+
+		assertThat(Cursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void missingCursorStartsBeforeEveryRow() {
+		Cursor first = Cursor.decode(null);
+
+		assertThat(Cursor.decode(" ")).isEqualTo(first);
+		assertThat(first.createdDate()).isAfter(LocalDateTime.now());
+		assertThat(first.id()).isEqualTo(Integer.MAX_VALUE);
+	}
+
+	@Test
+	void decodeRejectsMalformedCursors() {
+		String withoutSeparator = Base64.getUrlEncoder().encodeToString("2026-03-14T15:09".getBytes(StandardCharsets.UTF_8));
+		String withBadDate = Base64.getUrlEncoder().encodeToString("yesterday|42".getBytes(StandardCharsets.UTF_8));
+
+		assertThatThrownBy(() -> Cursor.decode("not base64!")).isInstanceOf(OperationNotPermittedException.class);
+		assertThatThrownBy(() -> Cursor.decode(withoutSeparator)).isInstanceOf(OperationNotPermittedException.class);
+		assertThatThrownBy(() -> Cursor.decode(withBadDate)).isInstanceOf(OperationNotPermittedException.class);
+	}
+
+	@Test
+	void rankCursorKeepsTheExactRank() {
+		RankCursor cursor = new RankCursor(0.060792710f, 7);
+
+		assertThat(RankCursor.decode(cursor.encode())).isEqualTo(cursor);
+		assertThat(RankCursor.decode(null)).isNull();
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.devskills.book.cover;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.devskills.book.file.FileStorageService;
+
+class CoverJobWorkerTest {
+	
+	private CoverJobService coverJobService;
+	private FileStorageService fileStorageService;
+	private CoverJobWorker worker;
+	
+	@BeforeEach
+	void setUp() {
+		coverJobService = mock(CoverJobService.class);
+		fileStorageService = mock(FileStorageService.class);
+		worker = new CoverJobWorker(coverJobService, fileStorageService, 1, 4, Duration.ofMinutes(5));
+		CoverJob job = CoverJob.builder()
+				.id(7)
+				.spooledFile("spool/cover.png")
+				.contentHash("abcd")
+				.status(CoverJobStatus.PROCESSING)
+				.build();
+		when(coverJobService.findPendingJobIds(anyInt())).thenReturn(List.of(7));
+		when(coverJobService.claim(7)).thenReturn(true);
+		when(coverJobService.findJob(7)).thenReturn(job);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		worker.shutdown();
+	}
+	
+	@Test
+	void transientStorageFailureIsRetriedAndKeepsTheSpooledFile() throws IOException {
+		when(fileStorageService.saveFile("spool/cover.png", "abcd")).thenThrow(new IOException("S3 unavailable"));
+		when(coverJobService.retryOrFail(7, "S3 unavailable")).thenReturn(false);
+		
+		worker.poll();
+		
+		verify(coverJobService, timeout(2000)).retryOrFail(7, "S3 unavailable");
+		verify(coverJobService, never()).fail(eq(7), anyString());
+		verify(fileStorageService, never()).deleteSpooledFile(anyString());
+	}
+	
+	@Test
+	void exhaustedRetriesDeleteTheSpooledFile() throws IOException {
+		when(fileStorageService.saveFile("spool/cover.png", "abcd")).thenThrow(new IOException("S3 unavailable"));
+		when(coverJobService.retryOrFail(7, "S3 unavailable")).thenReturn(true);
+		
+		worker.poll();
+		
+		verify(fileStorageService, timeout(2000)).deleteSpooledFile("spool/cover.png");
+	}
+	
+	@Test
+	void invalidImageFailsTheJobWithoutRetrying() throws IOException {
+		when(fileStorageService.saveFile("spool/cover.png", "abcd")).thenReturn(null);
+		
+		worker.poll();
+		
+		verify(coverJobService, timeout(2000)).fail(7, "The cover is not a valid image");
+		verify(coverJobService, never()).retryOrFail(eq(7), anyString());
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.devskills.book.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CoverVariantGeneratorTest {
+	
+	@TempDir
+	Path folder;
+	
+	private CoverVariantGenerator generator;
+	
+	@BeforeEach
+	void setUp() {
+		generator = new CoverVariantGenerator();
+		ReflectionTestUtils.setField(generator, "maxPixels", 1_000_000L);
+	}
+	
+	@Test
+	void generateWritesEveryVariant() throws IOException {
+		Path cover = writePng(folder.resolve("cover.png"), 600, 900);
+		
+		assertThat(generator.generate(cover)).isTrue();
+		
+		BufferedImage thumbnail = ImageIO.read(Paths.get(CoverSize.THUMBNAIL.resolve(cover.toString())).toFile());
+		BufferedImage medium = ImageIO.read(Paths.get(CoverSize.MEDIUM.resolve(cover.toString())).toFile());
+		assertThat(thumbnail.getWidth()).isEqualTo(160);
+		assertThat(medium.getWidth()).isEqualTo(480);
+		assertThat(generator.hasAllVariants(cover)).isTrue();
+	}
+	
+	@Test
+	void generateRejectsImagesDeclaringTooManyPixelsWithoutDecodingThem() throws IOException {
+		Path cover = writePng(folder.resolve("bomb.png"), 10, 10);
+		declareDimensions(cover, 50_000, 50_000);
+		
+		assertThat(generator.generate(cover)).isFalse();
+		assertThat(Files.exists(Paths.get(CoverSize.THUMBNAIL.resolve(cover.toString())))).isFalse();
+	}
+	
+	@Test
+	void generateRejectsFilesThatAreNotImages() throws IOException {
+		Path cover = Files.writeString(folder.resolve("cover.png"), "not an image");
+		
+		assertThat(generator.generate(cover)).isFalse();
+	}
+	
+	@Test
+	void generateFailsWhenAVariantCannotBeWritten() throws IOException {
+		Path cover = writePng(folder.resolve("cover.png"), 600, 900);
+		Path medium = Files.createDirectories(Paths.get(CoverSize.MEDIUM.resolve(cover.toString())));
+		Files.writeString(medium.resolve("occupied"), "x");
+		
+		assertThatThrownBy(() -> generator.generate(cover)).isInstanceOf(IOException.class);
+		assertThat(Files.exists(Paths.get(CoverSize.THUMBNAIL.resolve(cover.toString())))).isFalse();
+	}
+	
+	@Test
+	void resolveAppendsTheVariantSuffixToTheBaseName() {
+		assertThat(CoverSize.THUMBNAIL.resolve("blobs/ab/cd/abcd.png")).isEqualTo("blobs/ab/cd/abcd-thumbnail.jpg");
+		assertThat(CoverSize.MEDIUM.resolve("covers.v2/cover")).isEqualTo("covers.v2/cover-medium.jpg");
+		assertThat(CoverSize.ORIGINAL.resolve("cover.png")).isEqualTo("cover.png");
+		assertThat(CoverSize.isVariant("cover-thumbnail.jpg")).isTrue();
+		assertThat(CoverSize.isVariant("cover.jpg")).isFalse();
+	}
+	
+	private Path writePng(Path path, int width, int height) throws IOException {
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", path.toFile());
+		return path;
+	}
+	
+	private void declareDimensions(Path png, int width, int height) throws IOException {
+		byte[] bytes = Files.readAllBytes(png);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		buffer.putInt(16, width);
+		buffer.putInt(20, height);
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 12, 17);
+		buffer.putInt(29, (int) crc.getValue());
+		Files.write(png, bytes);
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.devskills.book.file;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FileBlobSweeperTest {
+	
+	private FileBlobRepository fileBlobRepository;
+	private BlobStorage blobStorage;
+	private FileBlobSweeper sweeper;
+	
+	@BeforeEach
+	void setUp() {
+		fileBlobRepository = mock(FileBlobRepository.class);
+		blobStorage = mock(BlobStorage.class);
+		sweeper = new FileBlobSweeper(fileBlobRepository, blobStorage);
+		ReflectionTestUtils.setField(sweeper, "gracePeriod", Duration.ofHours(1));
+		when(fileBlobRepository.report()).thenReturn(new FileBlobReport(0, 0, 0));
+		when(fileBlobRepository.findUnreferencedBlobs(any())).thenReturn(List.of(
+				FileBlob.builder().contentHash("dead").path("blobs/de/ad/dead.png").build(),
+				FileBlob.builder().contentHash("live").path("blobs/li/ve/live.png").build()
+		));
+	}
+	
+	@Test
+	void sweepDeletesFilesOnlyForRowsThatWereStillUnreferenced() {
+		when(fileBlobRepository.deleteIfUnreferenced(eq("dead"), any())).thenReturn(1);
+		when(fileBlobRepository.deleteIfUnreferenced(eq("live"), any())).thenReturn(0);
+		
+		sweeper.sweep();
+		
+		verify(blobStorage).delete("blobs/de/ad/dead.png");
+		verify(blobStorage).delete("blobs/de/ad/dead-thumbnail.jpg");
+		verify(blobStorage).delete("blobs/de/ad/dead-medium.jpg");
+		verify(blobStorage, never()).delete("blobs/li/ve/live.png");
+		verify(blobStorage, never()).delete("blobs/li/ve/live-thumbnail.jpg");
+		verify(fileBlobRepository, never()).delete(any());
+	}
+
+}
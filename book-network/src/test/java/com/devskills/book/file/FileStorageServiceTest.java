@@ -0,0 +1,215 @@
+package com.devskills.book.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.devskills.book.exception.OperationNotPermittedException;
+
+class FileStorageServiceTest {
+	
+	private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+	
+	@TempDir
+	Path uploadFolder;
+	
+	private BlobStorage blobStorage;
+	private FileBlobRepository fileBlobRepository;
+	private CoverVariantGenerator coverVariantGenerator;
+	private FileStorageService fileStorageService;
+	private final AtomicLong storedBytes = new AtomicLong();
+	
+	@BeforeEach
+	void setUp() throws IOException {
+		blobStorage = mock(BlobStorage.class);
+		fileBlobRepository = mock(FileBlobRepository.class);
+		coverVariantGenerator = mock(CoverVariantGenerator.class);
+		doAnswer(invocation -> {
+			Path source = invocation.getArgument(1, Path.class);
+			if (Files.exists(source)) {
+				storedBytes.set(Files.size(source));
+			}
+			return null;
+		}).when(blobStorage).store(anyString(), any(Path.class));
+		doAnswer(invocation -> Files.write(invocation.getArgument(1, Path.class), new byte[] {1, 2, 3}))
+				.when(blobStorage).fetch(anyString(), any(Path.class));
+		fileStorageService = new FileStorageService(coverVariantGenerator, fileBlobRepository, blobStorage);
+		ReflectionTestUtils.setField(fileStorageService, "fileUploadPath", uploadFolder.toString());
+		ReflectionTestUtils.setField(fileStorageService, "maxFileSize", DataSize.ofMegabytes(256));
+		ReflectionTestUtils.setField(fileStorageService, "allowedContentTypes", List.of("image/png"));
+	}
+	
+	@Test
+	void spoolFileKeepsHeapAllocationIndependentOfUploadSize() throws IOException {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		long uploadSize = DataSize.ofMegabytes(128).toBytes();
+		MultipartFile upload = upload(uploadSize);
+		
+		fileStorageService.spoolFile(upload(DataSize.ofKilobytes(64).toBytes()));
+		long before = threads.getCurrentThreadAllocatedBytes();
+		SpooledFile spooledFile = fileStorageService.spoolFile(upload);
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+		
+		assertThat(spooledFile).isNotNull();
+		assertThat(storedBytes.get()).isEqualTo(uploadSize);
+		assertThat(allocated).isLessThan(DataSize.ofMegabytes(4).toBytes());
+	}
+	
+	@Test
+	void spoolFileRejectsOversizedUploadMidStreamAndRemovesThePartialFile() throws IOException {
+		ReflectionTestUtils.setField(fileStorageService, "maxFileSize", DataSize.ofMegabytes(1));
+		
+		assertThatThrownBy(() -> fileStorageService.spoolFile(upload(DataSize.ofMegabytes(8).toBytes())))
+				.isInstanceOf(OperationNotPermittedException.class);
+		try (var files = Files.list(uploadFolder.resolve("tmp"))) {
+			assertThat(files).isEmpty();
+		}
+	}
+	
+	@Test
+	void spoolFileNamesTheKeyAfterTheDetectedContentType() throws IOException {
+		MultipartFile upload = upload(DataSize.ofKilobytes(1).toBytes());
+		when(upload.getOriginalFilename()).thenReturn("cover.html");
+		when(upload.getContentType()).thenReturn("text/html");
+		
+		SpooledFile spooledFile = fileStorageService.spoolFile(upload);
+		
+		assertThat(spooledFile.path()).startsWith("spool/").endsWith(".png");
+	}
+	
+	@Test
+	void getContentTypeServesOnlyAllowedTypes() {
+		assertThat(fileStorageService.getContentType(new ByteArrayResource(new byte[0]) {
+			@Override
+			public String getFilename() {
+				return "blobs/ab/cd/abcdef.png";
+			}
+		})).isEqualTo(MediaType.IMAGE_PNG);
+		assertThat(fileStorageService.getContentType(new ByteArrayResource(new byte[0]) {
+			@Override
+			public String getFilename() {
+				return "blobs/ab/cd/abcdef.html";
+			}
+		})).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+	}
+	
+	@Test
+	void saveFileRestoresAMissingBlobWithoutResettingItsReferenceCount() throws IOException {
+		FileBlob blob = FileBlob.builder().contentHash("abcdef").path("blobs/ab/cd/abcdef.png").refCount(3).build();
+		when(fileBlobRepository.findById("abcdef")).thenReturn(Optional.of(blob));
+		when(blobStorage.exists("blobs/ab/cd/abcdef.png")).thenReturn(false);
+		when(coverVariantGenerator.generate(any(Path.class))).thenReturn(true);
+		when(fileBlobRepository.insertIfAbsent(eq("abcdef"), eq("blobs/ab/cd/abcdef.png"), anyLong(), any())).thenReturn(0);
+		when(fileBlobRepository.touch(eq("abcdef"), any())).thenReturn(1);
+		
+		String path = fileStorageService.saveFile("spool/upload.jpg", "abcdef");
+		
+		assertThat(path).isEqualTo("blobs/ab/cd/abcdef.png");
+		verify(blobStorage).store(eq("blobs/ab/cd/abcdef.png"), any(Path.class));
+		verify(fileBlobRepository, never()).save(any());
+		verify(blobStorage, never()).delete("blobs/ab/cd/abcdef.png");
+		verify(blobStorage).delete("spool/upload.jpg");
+	}
+	
+	@Test
+	void saveFileTreatsAConcurrentInsertAsADeduplicationHit() throws IOException {
+		FileBlob concurrentBlob = FileBlob.builder().contentHash("abcdef").path("blobs/ab/cd/abcdef.jpg").build();
+		when(fileBlobRepository.findById("abcdef")).thenReturn(Optional.empty(), Optional.of(concurrentBlob));
+		when(coverVariantGenerator.generate(any(Path.class))).thenReturn(true);
+		when(fileBlobRepository.insertIfAbsent(eq("abcdef"), eq("blobs/ab/cd/abcdef.png"), anyLong(), any())).thenReturn(0);
+		when(fileBlobRepository.touch(eq("abcdef"), any())).thenReturn(1);
+		
+		String path = fileStorageService.saveFile("spool/upload.png", "abcdef");
+		
+		assertThat(path).isEqualTo("blobs/ab/cd/abcdef.jpg");
+		verify(blobStorage).delete("blobs/ab/cd/abcdef.png");
+		verify(blobStorage, never()).delete("blobs/ab/cd/abcdef.jpg");
+		verify(fileBlobRepository).touch(eq("abcdef"), any());
+	}
+	
+	@Test
+	void saveFileStoresTheBlobAgainWhenItIsSweptWhileBeingReused() throws IOException {
+		FileBlob blob = FileBlob.builder().contentHash("abcdef").path("blobs/ab/cd/abcdef.png").build();
+		when(fileBlobRepository.findById("abcdef")).thenReturn(Optional.of(blob));
+		when(blobStorage.exists("blobs/ab/cd/abcdef.png")).thenReturn(true);
+		when(fileBlobRepository.touch(eq("abcdef"), any())).thenReturn(0);
+		when(coverVariantGenerator.generate(any(Path.class))).thenReturn(true);
+		when(fileBlobRepository.insertIfAbsent(eq("abcdef"), eq("blobs/ab/cd/abcdef.png"), anyLong(), any())).thenReturn(1);
+		
+		String path = fileStorageService.saveFile("spool/upload.png", "abcdef");
+		
+		assertThat(path).isEqualTo("blobs/ab/cd/abcdef.png");
+		verify(blobStorage).store(eq("blobs/ab/cd/abcdef.png"), any(Path.class));
+		verify(blobStorage).delete("spool/upload.png");
+	}
+	
+	private MultipartFile upload(long size) throws IOException {
+		MultipartFile file = mock(MultipartFile.class);
+		when(file.getOriginalFilename()).thenReturn("cover.png");
+		when(file.getContentType()).thenReturn("image/png");
+		when(file.getSize()).thenReturn(size);
+		when(file.getInputStream()).thenAnswer(invocation -> new GeneratedPngStream(size));
+		return file;
+	}
+	
+	private static class GeneratedPngStream extends InputStream {
+		
+		private final long size;
+		private long position;
+		
+		private GeneratedPngStream(long size) {
+			this.size = size;
+		}
+		
+		@Override
+		public int read() {
+			if (position >= size) {
+				return -1;
+			}
+			int value = position < PNG_SIGNATURE.length ? PNG_SIGNATURE[(int) position] & 0xFF : (int) (position & 0x7F);
+			position++;
+			return value;
+		}
+		
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (position >= size) {
+				return -1;
+			}
+			int count = (int) Math.min(length, size - position);
+			for (int i = 0; i < count; i++) {
+				bytes[offset + i] = (byte) read();
+			}
+			return count;
+		}
+	}
+
+}
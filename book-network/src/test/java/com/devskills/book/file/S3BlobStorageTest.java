@@ -0,0 +1,233 @@
+package com.devskills.book.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class S3BlobStorageTest {
+
+	private static final String BUCKET = "book-network";
+
+	@TempDir
+	Path uploadFolder;
+
+	private FakeS3 fakeS3;
+	private S3BlobStorage storage;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		fakeS3 = new FakeS3();
+		storage = new S3BlobStorage(uploadFolder.toString(), fakeS3.endpoint(), "us-east-1", BUCKET, "test", "test", true, true);
+		storage.createBucketIfMissing();
+	}
+
+	@AfterEach
+	void tearDown() {
+		storage.close();
+		fakeS3.stop();
+	}
+
+	@Test
+	void createBucketIfMissingCreatesTheBucket() {
+		assertThat(fakeS3.buckets).containsExactly(BUCKET);
+	}
+
+	@Test
+	void storedObjectsAreReadFromTheBucket() throws IOException {
+		Path source = Files.write(uploadFolder.resolve("upload.part"), content("cover", 70_000));
+
+		storage.store("blobs/ab/cd/abcd.png", source);
+
+		assertThat(source).doesNotExist();
+		assertThat(fakeS3.objects).containsKey(BUCKET + "/blobs/ab/cd/abcd.png");
+		assertThat(storage.exists("blobs/ab/cd/abcd.png")).isTrue();
+		assertThat(storage.read("blobs/ab/cd/abcd.png")).isEqualTo(content("cover", 70_000));
+		Resource resource = storage.load("blobs/ab/cd/abcd.png");
+		assertThat(resource.contentLength()).isEqualTo(70_000);
+		try (InputStream in = resource.getInputStream()) {
+			assertThat(in.readAllBytes()).isEqualTo(content("cover", 70_000));
+		}
+		Path target = uploadFolder.resolve("fetched.png");
+		storage.fetch("blobs/ab/cd/abcd.png", target);
+		assertThat(Files.readAllBytes(target)).isEqualTo(content("cover", 70_000));
+
+		storage.delete("blobs/ab/cd/abcd.png");
+
+		assertThat(storage.exists("blobs/ab/cd/abcd.png")).isFalse();
+		assertThat(storage.read("blobs/ab/cd/abcd.png")).isNull();
+		assertThat(storage.load("blobs/ab/cd/abcd.png")).isNull();
+	}
+
+	@Test
+	void coversStoredLocallyBeforeTheSwitchAreStillServed() throws IOException {
+		Path localCover = uploadFolder.resolve("users/1/cover.png");
+		Files.createDirectories(localCover.getParent());
+		Files.write(localCover, content("local", 2_000));
+
+		assertThat(storage.exists("users/1/cover.png")).isTrue();
+		assertThat(storage.exists(localCover.toString())).isTrue();
+		assertThat(storage.read("users/1/cover.png")).isEqualTo(content("local", 2_000));
+		assertThat(storage.load("users/1/cover.png").contentLength()).isEqualTo(2_000);
+		Path target = uploadFolder.resolve("fetched.png");
+		storage.fetch("users/1/cover.png", target);
+		assertThat(Files.readAllBytes(target)).isEqualTo(content("local", 2_000));
+
+		storage.delete("users/1/cover.png");
+
+		assertThat(localCover).doesNotExist();
+		assertThat(storage.exists("users/1/cover.png")).isFalse();
+	}
+
+	@Test
+	void fetchFailsWhenTheObjectIsNowhere() {
+		assertThatThrownBy(() -> storage.fetch("users/1/missing.png", uploadFolder.resolve("missing.png")))
+				.isInstanceOf(IOException.class);
+	}
+
+	private static byte[] content(String seed, int length) {
+		byte[] pattern = seed.getBytes(StandardCharsets.UTF_8);
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = pattern[i % pattern.length];
+		}
+		return bytes;
+	}
+
+	private static final class FakeS3 {
+
+		private final Set<String> buckets = ConcurrentHashMap.newKeySet();
+		private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+		private final String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC));
+		private final HttpServer server;
+
+		private FakeS3() throws IOException {
+			server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+			server.createContext("/", this::handle);
+			server.start();
+		}
+
+		private String endpoint() {
+			return "http://127.0.0.1:" + server.getAddress().getPort();
+		}
+
+		private void stop() {
+			server.stop(0);
+		}
+
+		private void handle(HttpExchange exchange) throws IOException {
+			try (exchange) {
+				String path = exchange.getRequestURI().getPath().substring(1);
+				byte[] body = exchange.getRequestBody().readAllBytes();
+				boolean bucketRequest = !path.contains("/");
+				switch (exchange.getRequestMethod()) {
+					case "PUT" -> {
+						if (bucketRequest) {
+							buckets.add(path);
+						} else {
+							byte[] content = decode(exchange, body);
+							objects.put(path, content);
+							exchange.getResponseHeaders().add("ETag", etag(content));
+						}
+						exchange.sendResponseHeaders(200, -1);
+					}
+					case "HEAD" -> {
+						byte[] content = objects.get(path);
+						if (bucketRequest ? !buckets.contains(path) : content == null) {
+							exchange.sendResponseHeaders(404, -1);
+							return;
+						}
+						if (content != null) {
+							exchange.getResponseHeaders().add("ETag", etag(content));
+							exchange.getResponseHeaders().add("Last-Modified", lastModified);
+							exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+						}
+						exchange.sendResponseHeaders(200, -1);
+					}
+					case "GET" -> {
+						byte[] content = objects.get(path);
+						if (content == null) {
+							byte[] error = "<Error><Code>NoSuchKey</Code><Message>The specified key does not exist.</Message></Error>"
+									.getBytes(StandardCharsets.UTF_8);
+							exchange.getResponseHeaders().add("Content-Type", "application/xml");
+							exchange.sendResponseHeaders(404, error.length);
+							exchange.getResponseBody().write(error);
+							return;
+						}
+						exchange.getResponseHeaders().add("ETag", etag(content));
+						exchange.getResponseHeaders().add("Last-Modified", lastModified);
+						exchange.sendResponseHeaders(200, content.length);
+						exchange.getResponseBody().write(content);
+					}
+					case "DELETE" -> {
+						objects.remove(path);
+						exchange.sendResponseHeaders(204, -1);
+					}
+					default -> exchange.sendResponseHeaders(405, -1);
+				}
+			}
+		}
+
+		private static byte[] decode(HttpExchange exchange, byte[] body) {
+			String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+			if (contentSha256 == null || !contentSha256.startsWith("STREAMING-")) {
+				return body;
+			}
+			ByteArrayOutputStream content = new ByteArrayOutputStream();
+			int position = 0;
+			while (position < body.length) {
+				int lineEnd = indexOfLineEnd(body, position);
+				String chunkHeader = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+				int chunkSize = Integer.parseInt(chunkHeader.split(";")[0].trim(), 16);
+				if (chunkSize == 0) {
+					break;
+				}
+				content.write(body, lineEnd + 2, chunkSize);
+				position = lineEnd + 2 + chunkSize + 2;
+			}
+			return content.toByteArray();
+		}
+
+		private static int indexOfLineEnd(byte[] body, int from) {
+			for (int i = from; i < body.length - 1; i++) {
+				if (body[i] == '\r' && body[i + 1] == '\n') {
+					return i;
+				}
+			}
+			return body.length;
+		}
+
+		private static String etag(byte[] content) {
+			try {
+				return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.devskills.book.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class SegmentBlobStorageTest {
+
+	@TempDir
+	Path uploadFolder;
+
+	private SegmentBlobStorage storage;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		storage = open();
+	}
+
+	@AfterEach
+	void tearDown() {
+		storage.close();
+	}
+
+	@Test
+	void storedBlobsSurviveAReopen() throws IOException {
+		storage.store("blobs/aa/first.png", source("first", 1000));
+		storage.store("blobs/bb/second.png", source("second", 3000));
+		storage.delete("blobs/aa/first.png");
+
+		reopen();
+
+		assertThat(storage.exists("blobs/aa/first.png")).isFalse();
+		assertThat(storage.read("blobs/bb/second.png")).isEqualTo(content("second", 3000));
+		assertThat(Files.size(segment(1))).isEqualTo(recordSize("blobs/aa/first.png", 1000) + recordSize("blobs/bb/second.png", 3000)
+				+ recordSize("blobs/aa/first.png", 0));
+	}
+
+	@Test
+	void reopenDropsATornRecordAtTheEndOfTheSegment() throws IOException {
+		storage.store("blobs/aa/first.png", source("first", 1000));
+		storage.store("blobs/bb/second.png", source("second", 3000));
+		storage.close();
+		try (FileChannel channel = FileChannel.open(segment(1), StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 10);
+		}
+
+		storage = open();
+
+		assertThat(storage.read("blobs/aa/first.png")).isEqualTo(content("first", 1000));
+		assertThat(storage.exists("blobs/bb/second.png")).isFalse();
+		assertThat(Files.size(segment(1))).isEqualTo(recordSize("blobs/aa/first.png", 1000));
+	}
+
+	@Test
+	void reopenDropsARecordWhoseChecksumDoesNotMatch() throws IOException {
+		storage.store("blobs/aa/first.png", source("first", 1000));
+		storage.store("blobs/bb/second.png", source("second", 3000));
+		storage.close();
+		try (FileChannel channel = FileChannel.open(segment(1), StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 42 }), recordSize("blobs/aa/first.png", 1000) + 100);
+		}
+
+		storage = open();
+
+		assertThat(storage.read("blobs/aa/first.png")).isEqualTo(content("first", 1000));
+		assertThat(storage.exists("blobs/bb/second.png")).isFalse();
+	}
+
+	@Test
+	void compactionMovesLiveBlobsAndKeepsDeletionsAcrossAReopen() throws IOException {
+		for (int i = 0; i < 6; i++) {
+			storage.store("blobs/" + i + ".png", source("blob-" + i, 20_000));
+		}
+		assertThat(Files.exists(segment(2))).isTrue();
+		storage.delete("blobs/0.png");
+		storage.delete("blobs/1.png");
+		storage.store("blobs/1.png", source("blob-1-again", 20_000));
+
+		storage.compact();
+
+		assertThat(Files.exists(segment(1))).isFalse();
+		assertThat(storage.exists("blobs/0.png")).isFalse();
+		assertThat(storage.read("blobs/1.png")).isEqualTo(content("blob-1-again", 20_000));
+		assertThat(storage.read("blobs/2.png")).isEqualTo(content("blob-2", 20_000));
+
+		reopen();
+
+		assertThat(storage.exists("blobs/0.png")).isFalse();
+		for (int i = 2; i < 6; i++) {
+			assertThat(storage.read("blobs/" + i + ".png")).isEqualTo(content("blob-" + i, 20_000));
+		}
+		assertThat(storage.read("blobs/1.png")).isEqualTo(content("blob-1-again", 20_000));
+	}
+
+	@Test
+	void packKeepsTheSourceAndStoreConsumesIt() throws IOException {
+		Path packed = source("packed", 5000);
+		Path stored = source("stored", 5000);
+
+		storage.pack("users/1/packed.png", packed);
+		storage.store("users/1/stored.png", stored);
+
+		assertThat(packed).exists();
+		assertThat(storage.matches("users/1/packed.png", packed)).isTrue();
+		Files.write(packed, content("changed", 5000));
+		assertThat(storage.matches("users/1/packed.png", packed)).isFalse();
+		assertThat(stored).doesNotExist();
+	}
+
+	private SegmentBlobStorage open() throws IOException {
+		SegmentBlobStorage segmentBlobStorage = new SegmentBlobStorage(
+				uploadFolder.toString(),
+				DataSize.ofKilobytes(64),
+				DataSize.ofKilobytes(8),
+				0.3
+		);
+		segmentBlobStorage.open();
+		return segmentBlobStorage;
+	}
+
+	private void reopen() throws IOException {
+		storage.close();
+		storage = open();
+	}
+
+	private Path segment(int id) {
+		return uploadFolder.resolve("segments").resolve(String.format("segment-%06d.dat", id));
+	}
+
+	private Path source(String seed, int length) throws IOException {
+		return Files.write(Files.createTempFile(uploadFolder, seed, ".png"), content(seed, length));
+	}
+
+	private static byte[] content(String seed, int length) {
+		byte[] pattern = seed.getBytes(StandardCharsets.UTF_8);
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = pattern[i % pattern.length];
+		}
+		return bytes;
+	}
+
+	private static long recordSize(String key, int length) {
+		return 28 + key.getBytes(StandardCharsets.UTF_8).length + length;
+	}
+
+}
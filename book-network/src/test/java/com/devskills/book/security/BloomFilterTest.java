@@ -0,0 +1,53 @@
+package com.devskills.book.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+	@Test
+	void containsEveryValueThatWasPut() {
+		BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+		IntStream.range(0, 1_000).forEach(i -> filter.put("token-" + i));
+
+		assertThat(IntStream.range(0, 1_000)).allMatch(i -> filter.mightContain("token-" + i));
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTheTarget() {
+		BloomFilter filter = new BloomFilter(1_000, 0.01);
+		IntStream.range(0, 1_000).forEach(i -> filter.put("token-" + i));
+
+		long falsePositives = IntStream.range(0, 100_000)
+				.filter(i -> filter.mightContain("other-" + i))
+				.count();
+
+		assertThat(falsePositives).isLessThan(2_000);
+	}
+
+	@Test
+	void reAddingAValueDoesNotGrowTheSize() {
+		BloomFilter filter = new BloomFilter(10, 0.01);
+
+		assertThat(filter.put("token")).isTrue();
+		assertThat(filter.put("token")).isFalse();
+		assertThat(filter.size()).isEqualTo(1);
+	}
+
+	@Test
+	void isSaturatedOnceMoreDistinctValuesThanTheCapacityArePut() {
+		BloomFilter filter = new BloomFilter(100, 0.01);
+
+		IntStream.range(0, 100).forEach(i -> filter.put("token-" + i));
+		IntStream.range(0, 100).forEach(i -> filter.put("token-" + i));
+		assertThat(filter.isSaturated()).isFalse();
+
+		IntStream.range(100, 110).forEach(i -> filter.put("token-" + i));
+		assertThat(filter.isSaturated()).isTrue();
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.devskills.book.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.devskills.book.exception.PasswordHashingUnavailableException;
+
+class BoundedPasswordEncoderTest {
+
+	private static final String SLOW_HASH = "$2a$14$" + "abcdefghijklmnopqrstuv" + "ABCDEFGHIJKLMNOPQRSTUVWXYZ01234";
+
+	private BoundedPasswordEncoder passwordEncoder;
+
+	@AfterEach
+	void tearDown() {
+		passwordEncoder.shutdown();
+	}
+
+	@Test
+	void matchesRunsOnTheHashingPool() {
+		passwordEncoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(10));
+
+		String encoded = passwordEncoder.encode("secret");
+
+		assertThat(passwordEncoder.matches("secret", encoded)).isTrue();
+		assertThat(passwordEncoder.matches("other", encoded)).isFalse();
+	}
+
+	@Test
+	void slowChecksTimeOut() {
+		passwordEncoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofMillis(1));
+
+		assertThatThrownBy(() -> passwordEncoder.matches("secret", SLOW_HASH))
+				.isInstanceOf(PasswordHashingUnavailableException.class)
+				.hasMessage("The password check timed out, try again later");
+	}
+
+	@Test
+	void checksAreRejectedWhenTheQueueIsFull() {
+		passwordEncoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofMillis(1));
+		assertThatThrownBy(() -> passwordEncoder.matches("secret", SLOW_HASH))
+				.isInstanceOf(PasswordHashingUnavailableException.class);
+		assertThatThrownBy(() -> passwordEncoder.matches("secret", SLOW_HASH))
+				.isInstanceOf(PasswordHashingUnavailableException.class);
+
+		assertThatThrownBy(() -> passwordEncoder.matches("secret", SLOW_HASH))
+				.isInstanceOf(PasswordHashingUnavailableException.class)
+				.hasMessage("Too many password checks in progress, try again later");
+	}
+
+	@Test
+	void upgradeEncodingDetectsAnotherCost() {
+		passwordEncoder = new BoundedPasswordEncoder(10, 1, 1, Duration.ofSeconds(10));
+
+		assertThat(passwordEncoder.upgradeEncoding("$2a$10$" + "abcdefghijklmnopqrstuv" + "ABCDEFGHIJKLMNOPQRSTUVWXYZ01234")).isFalse();
+		assertThat(passwordEncoder.upgradeEncoding("$2b$12$" + "abcdefghijklmnopqrstuv" + "ABCDEFGHIJKLMNOPQRSTUVWXYZ01234")).isTrue();
+		assertThat(passwordEncoder.upgradeEncoding("{noop}secret")).isFalse();
+		assertThat(passwordEncoder.upgradeEncoding(null)).isFalse();
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.devskills.book.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.devskills.book.auth.AuthenticationService;
+import com.devskills.book.email.EmailService;
+import com.devskills.book.role.Role;
+import com.devskills.book.role.RoleRepository;
+import com.devskills.book.user.Token;
+import com.devskills.book.user.TokenRepository;
+import com.devskills.book.user.User;
+import com.devskills.book.user.UserRepository;
+
+import jakarta.mail.MessagingException;
+import jakarta.servlet.ServletException;
+
+class JwtFilterTest {
+
+	private static final String SECRET_KEY = "39f965f84b9797bcd0e6f0f9e252ed83a289848104b0513e4d290cf5fc35d2d9";
+	private static final String EMAIL = "ada@mail.com";
+	private static final Integer USER_ID = 7;
+
+	private JwtService jwtService;
+	private UserDetailsService userDetailsService;
+	private UserRepository userRepository;
+	private UserStatusCache userStatusCache;
+	private JwtFilter jwtFilter;
+
+	@BeforeEach
+	void setUp() {
+		jwtService = new JwtService(60_000, SECRET_KEY, 100);
+		userDetailsService = mock(UserDetailsService.class);
+		userRepository = mock(UserRepository.class);
+		userStatusCache = new UserStatusCache(userRepository, Duration.ofMinutes(5), 100);
+		jwtFilter = new JwtFilter(jwtService, userDetailsService, userStatusCache, mock(TokenRevocationService.class));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void tokensWithAnIdAreResolvedFromTheirClaims() throws ServletException, IOException {
+		when(userRepository.findStatusByEmail(EMAIL)).thenReturn(Optional.of(new UserStatus(USER_ID, true, false)));
+
+		Authentication authentication = filter(token(USER_ID));
+
+		User user = (User) authentication.getPrincipal();
+		assertThat(user.getId()).isEqualTo(USER_ID);
+		assertThat(user.fullName()).isEqualTo("Ada Lovelace");
+		assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("USER");
+		verify(userDetailsService, never()).loadUserByUsername(any());
+	}
+
+	@Test
+	void tokensWithoutAnIdFallBackToTheUserDetailsService() throws ServletException, IOException {
+		User user = user(true, false);
+		when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(user);
+
+		Authentication authentication = filter(token(null));
+
+		assertThat(authentication.getPrincipal()).isSameAs(user);
+		verify(userRepository, never()).findStatusByEmail(any());
+	}
+
+	@Test
+	void tokensWhoseIdDoesNotMatchTheAccountAreRejected() throws ServletException, IOException {
+		when(userRepository.findStatusByEmail(EMAIL)).thenReturn(Optional.of(new UserStatus(USER_ID + 1, true, false)));
+
+		assertThat(filter(token(USER_ID))).isNull();
+	}
+
+	@Test
+	void tokensOfDeletedAccountsAreRejected() throws ServletException, IOException {
+		when(userRepository.findStatusByEmail(EMAIL)).thenReturn(Optional.empty());
+
+		assertThat(filter(token(USER_ID))).isNull();
+	}
+
+	@Test
+	void disabledAccountsAreRejected() throws ServletException, IOException {
+		when(userRepository.findStatusByEmail(EMAIL)).thenReturn(Optional.of(new UserStatus(USER_ID, false, false)));
+		when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(user(false, false));
+
+		assertThat(filter(token(USER_ID))).isNull();
+		assertThat(filter(token(null))).isNull();
+	}
+
+	@Test
+	void lockedAccountsAreRejected() throws ServletException, IOException {
+		when(userRepository.findStatusByEmail(EMAIL)).thenReturn(Optional.of(new UserStatus(USER_ID, true, true)));
+		when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(user(true, true));
+
+		assertThat(filter(token(USER_ID))).isNull();
+		assertThat(filter(token(null))).isNull();
+	}
+
+	@Test
+	void activationInvalidatesTheCachedStatus() throws ServletException, IOException, MessagingException {
+		User account = user(false, false);
+		when(userRepository.findStatusByEmail(EMAIL)).thenAnswer(invocation -> Optional.of(new UserStatus(USER_ID, account.isEnabled(), false)));
+		when(userRepository.findById(USER_ID)).thenReturn(Optional.of(account));
+		TokenRepository tokenRepository = mock(TokenRepository.class);
+		when(tokenRepository.findByToken("123456")).thenReturn(Optional.of(Token.builder()
+				.token("123456")
+				.expiresAt(LocalDateTime.now().plusMinutes(15))
+				.user(account)
+				.build()));
+		AuthenticationService authenticationService = new AuthenticationService(
+				mock(RoleRepository.class),
+				mock(PasswordEncoder.class),
+				userRepository,
+				tokenRepository,
+				mock(EmailService.class),
+				mock(AuthenticationManager.class),
+				jwtService,
+				userStatusCache,
+				mock(LoginThrottle.class)
+		);
+		String token = token(USER_ID);
+		assertThat(filter(token)).isNull();
+
+		authenticationService.activateAccount("123456");
+
+		assertThat(filter(token)).isNotNull();
+	}
+
+	private Authentication filter(String token) throws ServletException, IOException {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+		request.setServletPath("/books");
+		request.addHeader("Authorization", "Bearer " + token);
+		jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+
+	private String token(Integer userId) {
+		Map<String, Object> claims = new HashMap<>();
+		if (userId != null) {
+			claims.put("id", userId);
+		}
+		claims.put("firstname", "Ada");
+		claims.put("lastname", "Lovelace");
+		return jwtService.generateToken(claims, user(true, false));
+	}
+
+	private static User user(boolean enabled, boolean accountLocked) {
+		return User.builder()
+				.id(USER_ID)
+				.firstname("Ada")
+				.lastname("Lovelace")
+				.email(EMAIL)
+				.enabled(enabled)
+				.accountLocked(accountLocked)
+				.roles(List.of(Role.builder().name("USER").build()))
+				.build();
+	}
+
+}
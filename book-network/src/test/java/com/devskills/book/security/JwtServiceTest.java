@@ -0,0 +1,102 @@
+package com.devskills.book.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.devskills.book.user.User;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+class JwtServiceTest {
+
+	private static final String SECRET_KEY = "39f965f84b9797bcd0e6f0f9e252ed83a289848104b0513e4d290cf5fc35d2d9";
+	private static final String OTHER_SECRET_KEY = "0a1b2c3d4e5f60718293a4b5c6d7e8f90a1b2c3d4e5f60718293a4b5c6d7e8f9";
+	private static final int ITERATIONS = 20_000;
+
+	@Test
+	void verifiedTokensAreServedFromTheCache() {
+		JwtService jwtService = new JwtService(60_000, SECRET_KEY, 100);
+		String token = token(jwtService);
+
+		VerifiedToken verified = jwtService.verify(token);
+
+		assertThat(jwtService.verify(token)).isSameAs(verified);
+		assertThat(verified.subject()).isEqualTo("ada@mail.com");
+		assertThat(verified.userId()).isEqualTo(7);
+	}
+
+	@Test
+	void cachedTokensAreNotServedOnceExpired() throws InterruptedException {
+		JwtService jwtService = new JwtService(1_000, SECRET_KEY, 100);
+		String token = token(jwtService);
+		jwtService.verify(token);
+
+		Thread.sleep(1_100);
+
+		assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+	}
+
+	@Test
+	void theParserRejectsTokensSignedWithAnotherKey() {
+		JwtService jwtService = new JwtService(60_000, SECRET_KEY, 100);
+		String forged = token(new JwtService(60_000, OTHER_SECRET_KEY, 100));
+
+		assertThatThrownBy(() -> jwtService.verify(forged)).isInstanceOf(SignatureException.class);
+		assertThatThrownBy(() -> jwtService.verify(forged)).isInstanceOf(SignatureException.class);
+	}
+
+	@Test
+	void aTamperedSignatureIsNotServedFromTheCache() {
+		JwtService jwtService = new JwtService(60_000, SECRET_KEY, 100);
+		String token = token(jwtService);
+		jwtService.verify(token);
+		char last = token.charAt(token.length() - 2);
+		String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+		assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(SignatureException.class);
+	}
+
+	@Test
+	void cachedVerificationIsCheaperThanParsing() {
+		JwtService jwtService = new JwtService(60_000, SECRET_KEY, 100);
+		JwtParser parser = Jwts.parser()
+				.verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+				.build();
+		String token = token(jwtService);
+
+		long cached = Long.MAX_VALUE;
+		long parsed = Long.MAX_VALUE;
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				jwtService.verify(token);
+			}
+			cached = Math.min(cached, System.nanoTime() - start);
+			start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				parser.parseSignedClaims(token);
+			}
+			parsed = Math.min(parsed, System.nanoTime() - start);
+		}
+
+		assertThat(cached).isLessThan(parsed / 2);
+	}
+
+	private static String token(JwtService jwtService) {
+		return jwtService.generateToken(
+				Map.of("id", 7, "firstname", "Ada", "lastname", "Lovelace"),
+				User.builder().email("ada@mail.com").roles(List.of()).build()
+		);
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.devskills.book.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.devskills.book.exception.TooManyLoginAttemptsException;
+
+class LoginThrottleTest {
+
+	private static final String EMAIL = "ada@mail.com";
+	private static final String ADDRESS = "203.0.113.7";
+
+	private LoginThrottle loginThrottle;
+
+	@BeforeEach
+	void setUp() {
+		loginThrottle = new LoginThrottle(Duration.ofMinutes(15), 3, 5, 100);
+	}
+
+	@Test
+	void concurrentAttemptsCannotExceedTheAccountLimit() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> attempts = new ArrayList<>();
+		try {
+			for (int i = 0; i < 16; i++) {
+				String address = "203.0.113." + i;
+				attempts.add(executor.submit(() -> {
+					start.await();
+					try {
+						loginThrottle.reserve(EMAIL, address);
+						return true;
+					} catch (TooManyLoginAttemptsException e) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+			int allowed = 0;
+			for (Future<Boolean> attempt : attempts) {
+				allowed += attempt.get() ? 1 : 0;
+			}
+			assertThat(allowed).isEqualTo(3);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void failedAttemptsKeepTheirReservation() {
+		for (int i = 0; i < 3; i++) {
+			loginThrottle.reserve(EMAIL, ADDRESS);
+		}
+
+		assertThatThrownBy(() -> loginThrottle.reserve(" ADA@mail.com ", "198.51.100.1"))
+				.isInstanceOf(TooManyLoginAttemptsException.class);
+		assertThatCode(() -> loginThrottle.reserve("grace@mail.com", ADDRESS)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void successResetsTheAccountAndReleasesTheAddress() {
+		loginThrottle.reserve(EMAIL, ADDRESS);
+		loginThrottle.reserve(EMAIL, ADDRESS);
+		loginThrottle.reserve(EMAIL, ADDRESS);
+		loginThrottle.recordSuccess(EMAIL, ADDRESS);
+
+		for (int i = 0; i < 3; i++) {
+			loginThrottle.reserve(EMAIL, ADDRESS);
+		}
+		assertThatThrownBy(() -> loginThrottle.reserve("grace@mail.com", ADDRESS))
+				.isInstanceOf(TooManyLoginAttemptsException.class);
+	}
+
+	@Test
+	void releasedAttemptsDoNotCount() {
+		for (int i = 0; i < 10; i++) {
+			loginThrottle.reserve(EMAIL, ADDRESS);
+			loginThrottle.release(EMAIL, ADDRESS);
+		}
+
+		assertThatCode(() -> loginThrottle.reserve(EMAIL, ADDRESS)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void addressRejectionDoesNotConsumeTheAccountAttempt() {
+		for (int i = 0; i < 5; i++) {
+			loginThrottle.reserve("user" + i + "@mail.com", ADDRESS);
+		}
+
+		assertThatThrownBy(() -> loginThrottle.reserve(EMAIL, ADDRESS))
+				.isInstanceOf(TooManyLoginAttemptsException.class);
+		for (int i = 0; i < 3; i++) {
+			loginThrottle.reserve(EMAIL, "198.51.100." + i);
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.devskills.book.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.devskills.book.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.ServletException;
+
+class RateLimitFilterTest {
+
+	private static final String CLIENT = "203.0.113.9";
+
+	@AfterEach
+	void clearSecurityContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void allowsTheBurstThenRejectsWithRetryAfter() throws ServletException, IOException {
+		RateLimitFilter filter = filter(true, new RateLimitProperties.Limit(3, Duration.ofMinutes(1)));
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(send(filter, "GET", "/books", CLIENT).getStatus()).isEqualTo(HttpStatus.OK.value());
+		}
+		MockHttpServletResponse rejected = send(filter, "GET", "/books", CLIENT);
+
+		assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+		assertThat(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isBetween(1L, 20L);
+		assertThat(rejected.getContentAsString()).contains("Rate limit exceeded");
+	}
+
+	@Test
+	void refillsOneRequestPerInterval() throws ServletException, IOException, InterruptedException {
+		RateLimitFilter filter = filter(true, new RateLimitProperties.Limit(2, Duration.ofSeconds(4)));
+
+		send(filter, "GET", "/books", CLIENT);
+		send(filter, "GET", "/books", CLIENT);
+		assertThat(send(filter, "GET", "/books", CLIENT).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+		Thread.sleep(2_200);
+
+		assertThat(send(filter, "GET", "/books", CLIENT).getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(send(filter, "GET", "/books", CLIENT).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+	}
+
+	@Test
+	void keepsSeparateBucketsPerClientAndRoute() throws ServletException, IOException {
+		RateLimitFilter filter = filter(true, new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+
+		assertThat(send(filter, "GET", "/books", CLIENT).getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(send(filter, "GET", "/books", CLIENT).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+		assertThat(send(filter, "GET", "/books", "198.51.100.4").getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(send(filter, "POST", "/books/import", CLIENT).getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(send(filter, "POST", "/books/import", CLIENT).getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(send(filter, "POST", "/books/import", CLIENT).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+	}
+
+	@Test
+	void keysAnonymousClientsByTheResolvedAddressNotByForwardedHeaders() throws ServletException, IOException {
+		RateLimitFilter filter = filter(true, new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+
+		MockHttpServletRequest first = request("GET", "/books", CLIENT);
+		first.addHeader("X-Forwarded-For", "192.0.2.1");
+		MockHttpServletRequest second = request("GET", "/books", CLIENT);
+		second.addHeader("X-Forwarded-For", "192.0.2.2");
+
+		assertThat(send(filter, first).getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(send(filter, second).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+	}
+
+	@Test
+	void keysAuthenticatedUsersByTheirId() throws ServletException, IOException {
+		RateLimitFilter filter = filter(true, new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+		User user = User.builder().id(7).build();
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+		assertThat(send(filter, "GET", "/books", CLIENT).getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(send(filter, "GET", "/books", "198.51.100.4").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+	}
+
+	@Test
+	void passesEveryRequestWhenDisabled() throws ServletException, IOException {
+		RateLimitFilter filter = filter(false, new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(send(filter, "GET", "/books", CLIENT).getStatus()).isEqualTo(HttpStatus.OK.value());
+		}
+	}
+
+	private RateLimitFilter filter(boolean enabled, RateLimitProperties.Limit defaultLimit) {
+		RateLimitProperties properties = new RateLimitProperties(
+				enabled,
+				Duration.ofMinutes(10),
+				1_000,
+				defaultLimit,
+				List.of(new RateLimitProperties.Route("POST", "/books/{transfer:import|export}", 2, Duration.ofMinutes(1)))
+		);
+		return new RateLimitFilter(properties, new ObjectMapper());
+	}
+
+	private MockHttpServletResponse send(RateLimitFilter filter, String method, String path, String remoteAddress) throws ServletException, IOException {
+		return send(filter, request(method, path, remoteAddress));
+	}
+
+	private MockHttpServletResponse send(RateLimitFilter filter, MockHttpServletRequest request) throws ServletException, IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String method, String path, String remoteAddress) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setServletPath(path);
+		request.setRemoteAddr(remoteAddress);
+		return request;
+	}
+
+}
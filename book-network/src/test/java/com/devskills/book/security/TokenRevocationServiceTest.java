@@ -0,0 +1,128 @@
+package com.devskills.book.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import com.devskills.book.exception.OperationNotPermittedException;
+import com.devskills.book.user.User;
+
+class TokenRevocationServiceTest {
+
+	private static final Integer USER_ID = 7;
+
+	private TokenRevocationRepository tokenRevocationRepository;
+	private TokenRevocationService revocationService;
+
+	@BeforeEach
+	void setUp() {
+		tokenRevocationRepository = mock(TokenRevocationRepository.class);
+		when(tokenRevocationRepository.save(any(TokenRevocation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		revocationService = new TokenRevocationService(tokenRevocationRepository, 3_600_000, 4, 0.01, Duration.ofSeconds(30), 100);
+	}
+
+	@Test
+	void beforeLoadingEveryCheckGoesToTheDatabase() {
+		VerifiedToken token = token("token-1", Instant.now());
+		when(tokenRevocationRepository.isRevoked(any(), any(), any())).thenReturn(true);
+
+		assertThat(revocationService.isRevoked(token)).isTrue();
+	}
+
+	@Test
+	void revokedTokenIsRejectedOnceConfirmed() {
+		load();
+		VerifiedToken revoked = token("token-1", Instant.now());
+		VerifiedToken other = token("token-2", Instant.now());
+		when(tokenRevocationRepository.existsByTokenId("token-1")).thenReturn(true);
+
+		revocationService.revoke(authentication(revoked));
+
+		assertThat(revocationService.isRevoked(revoked)).isTrue();
+		assertThat(revocationService.isRevoked(other)).isFalse();
+		verify(tokenRevocationRepository, never()).existsByTokenId("token-2");
+	}
+
+	@Test
+	void revokeNeedsATokenId() {
+		load();
+
+		assertThatThrownBy(() -> revocationService.revoke(authentication(token(null, Instant.now()))))
+				.isInstanceOf(OperationNotPermittedException.class);
+	}
+
+	@Test
+	void revokeAllRejectsTokensIssuedBeforeTheCutoff() {
+		load();
+
+		revocationService.revokeAll(authentication(token("token-1", Instant.now())));
+
+		assertThat(revocationService.isRevoked(token("token-1", Instant.now().minusSeconds(60)))).isTrue();
+		assertThat(revocationService.isRevoked(token("token-2", Instant.now().plusSeconds(60)))).isFalse();
+	}
+
+	@Test
+	void refreshPicksUpRevocationsFromOtherNodes() {
+		load();
+		when(tokenRevocationRepository.findByCreatedAtGreaterThanEqual(any())).thenReturn(List.of(revocation("token-9")));
+		when(tokenRevocationRepository.existsByTokenId("token-9")).thenReturn(true);
+
+		revocationService.refresh();
+
+		assertThat(revocationService.isRevoked(token("token-9", Instant.now()))).isTrue();
+	}
+
+	@Test
+	void overlappingRefreshesDoNotSaturateTheFilter() {
+		load();
+		when(tokenRevocationRepository.findByCreatedAtGreaterThanEqual(any()))
+				.thenReturn(List.of(revocation("token-1"), revocation("token-2"), revocation("token-3")));
+
+		for (int i = 0; i < 5; i++) {
+			revocationService.refresh();
+		}
+
+		verify(tokenRevocationRepository, times(1)).findByExpiresAtAfter(any());
+		verify(tokenRevocationRepository, times(5)).findByCreatedAtGreaterThanEqual(any());
+	}
+
+	private void load() {
+		when(tokenRevocationRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+		revocationService.load();
+	}
+
+	private static TokenRevocation revocation(String tokenId) {
+		return TokenRevocation.builder()
+				.tokenId(tokenId)
+				.userId(USER_ID)
+				.expiresAt(LocalDateTime.now().plusHours(1))
+				.createdAt(LocalDateTime.now())
+				.build();
+	}
+
+	private static VerifiedToken token(String id, Instant issuedAt) {
+		return new VerifiedToken(id, "reader@mail.com", USER_ID, "Ada", "Lovelace", List.of("USER"), issuedAt, issuedAt.plusSeconds(3_600));
+	}
+
+	private static Authentication authentication(VerifiedToken token) {
+		Authentication authentication = mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(User.builder().id(USER_ID).build());
+		when(authentication.getCredentials()).thenReturn(token);
+		return authentication;
+	}
+
+}